@@ -0,0 +1,129 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Пропускная способность общей таблицы при чтении из многих потоков:
+ * {@link ConcurrentMyHashMap} в сравнении с {@link MyHashMap} под общей
+ * блокировкой и {@link ConcurrentHashMap}. Количество потоков задается
+ * параметром JMH -t; по умолчанию используются все процессоры.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentMapBenchmark {
+
+    /**
+     * SynchronizedMyHashMap - MyHashMap, все методы которой вызываются под одной блокировкой.
+     */
+    @Param({"ConcurrentMyHashMap", "SynchronizedMyHashMap", "ConcurrentHashMap"})
+    public String implementation;
+
+    /**
+     * Доля записей среди операций, в процентах.
+     */
+    @Param({"0", "10"})
+    public int writePercent;
+
+    @Param({"100000"})
+    public int size;
+
+    private Integer[] keys;
+    private MyMap<Integer, Integer> map;
+
+    @Setup
+    public void setUp() {
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        switch (implementation) {
+            case "ConcurrentMyHashMap":
+                map = new ConcurrentMyHashMap<>();
+                break;
+            case "SynchronizedMyHashMap":
+                map = new SynchronizedMap<>(new MyHashMap<>());
+                break;
+            case "ConcurrentHashMap":
+                map = new MapBenchmark.JdkMap<>(new ConcurrentHashMap<>());
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация: " + implementation);
+        }
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Integer readMostly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(size)];
+        if (random.nextInt(100) < writePercent) {
+            map.put(key, key);
+            return key;
+        }
+        return map.get(key);
+    }
+
+    /**
+     * Обертка, защищающая все операции таблицы одной блокировкой.
+     */
+    static final class SynchronizedMap<K, V> implements MyMap<K, V> {
+        private final MyMap<K, V> map;
+
+        SynchronizedMap(MyMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public synchronized V remove(K key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public synchronized int size() {
+            return map.size();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return map.iterator();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Операции get/put/remove для {@link MyHashMap} в сравнении с {@link HashMap}
+ * на ключах с равномерным и скошенным распределением обращений, а также
+ * на ключах с совпадающими хеш-кодами.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MapBenchmark {
+
+    /**
+     * Количество операций в одном вызове бенчмарков get и remove.
+     */
+    private static final int OPERATIONS = 1024;
+
+    /**
+     * Сколько ключей в режиме colliding имеют одинаковый хеш-код.
+     */
+    private static final int COLLISION_GROUP = 8;
+
+    /**
+     * MyHashMap - емкости-степени двойки с перемешиванием хеш-кода;
+     * MyHashMapPrime - простые емкости и остаток от деления;
+     * MyHashMapIncremental - постепенное рехеширование;
+     * ConcurrentMyHashMap - потокобезопасная реализация в одном потоке.
+     */
+    @Param({"MyHashMap", "MyHashMapPrime", "MyHashMapIncremental", "OpenAddressingMap", "ConcurrentMyHashMap",
+            "HashMap"})
+    public String implementation;
+
+    /**
+     * uniform - все ключи запрашиваются одинаково часто;
+     * skewed - частоты обращений подчиняются закону Ципфа;
+     * colliding - группы ключей имеют одинаковый хеш-код.
+     */
+    @Param({"uniform", "skewed", "colliding"})
+    public String distribution;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Key[] keys;
+    private Key[] operations;
+    private MyMap<Key, Integer> map;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new Key[size];
+        for (int i = 0; i < size; i++) {
+            int hash = distribution.equals("colliding") ? i / COLLISION_GROUP * 0x9E3779B9 : random.nextInt();
+            keys[i] = new Key(i, hash);
+        }
+
+        operations = new Key[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            int index = distribution.equals("skewed") ? zipf(random, size) : random.nextInt(size);
+            operations[i] = keys[index];
+        }
+
+        map = newMap();
+        for (Key key : keys) {
+            map.put(key, key.id);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int get() {
+        int sum = 0;
+        for (Key key : operations) {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public MyMap<Key, Integer> put() {
+        MyMap<Key, Integer> target = newMap();
+        for (Key key : keys) {
+            target.put(key, key.id);
+        }
+        return target;
+    }
+
+    /**
+     * Удаление ключа и его возврат на место, чтобы размер таблицы не менялся между вызовами.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int removeAndPut() {
+        int sum = 0;
+        for (Key key : operations) {
+            Integer value = map.remove(key);
+            sum += value;
+            map.put(key, value);
+        }
+        return sum;
+    }
+
+    /**
+     * Подсчет частот одним вызовом merge.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public MyMap<Key, Integer> merge() {
+        for (Key key : operations) {
+            map.merge(key, 1, Integer::sum);
+        }
+        return map;
+    }
+
+    /**
+     * Тот же подсчет частот парой get и put, то есть двумя поисками ключа.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public MyMap<Key, Integer> getAndPut() {
+        for (Key key : operations) {
+            Integer count = map.get(key);
+            map.put(key, count == null ? 1 : count + 1);
+        }
+        return map;
+    }
+
+    private MyMap<Key, Integer> newMap() {
+        switch (implementation) {
+            case "MyHashMap":
+                return new MyHashMap<>();
+            case "MyHashMapPrime":
+                return new MyHashMap<>(MyHashMap.CapacityPolicy.PRIME);
+            case "MyHashMapIncremental":
+                return new MyHashMap<>(MyHashMap.CapacityPolicy.POWER_OF_TWO, MyHashMap.ResizeMode.INCREMENTAL);
+            case "OpenAddressingMap":
+                return new OpenAddressingMap<>();
+            case "ConcurrentMyHashMap":
+                return new ConcurrentMyHashMap<>();
+            case "HashMap":
+                return new JdkMap<>(new HashMap<>());
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация: " + implementation);
+        }
+    }
+
+    /**
+     * Возвращает индекс от 0 до n - 1, распределенный по закону Ципфа с показателем 1.
+     */
+    private static int zipf(Random random, int n) {
+        double harmonic = Math.log(n) + 0.5772156649;
+        double target = random.nextDouble() * harmonic;
+        // Приближенное обращение функции распределения: H(k) ~ ln(k) + gamma
+        int index = (int) Math.exp(target - 0.5772156649) - 1;
+        return Math.max(0, Math.min(n - 1, index));
+    }
+
+    /**
+     * Ключ с заданным хеш-кодом, чтобы управлять количеством коллизий.
+     */
+    static final class Key implements Comparable<Key> {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Адаптер {@link Map} к интерфейсу {@link MyMap} для сравнения реализаций.
+     */
+    static final class JdkMap<K, V> implements MyMap<K, V> {
+        private final Map<K, V> map;
+
+        JdkMap(Map<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public V get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public V remove(K key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            return map.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, V>> entries = map.entrySet().iterator();
+            return new Iterator<Entry<K, V>>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    Map.Entry<K, V> entry = entries.next();
+                    return new Entry<K, V>() {
+                        @Override
+                        public K getKey() {
+                            return entry.getKey();
+                        }
+
+                        @Override
+                        public V getValue() {
+                            return entry.getValue();
+                        }
+
+                        @Override
+                        public V setValue(V value) {
+                            return entry.setValue(value);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
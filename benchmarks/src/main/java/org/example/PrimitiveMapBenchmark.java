@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Таблица int -> int: {@link IntIntMap} без упаковки в сравнении с
+ * {@link MyHashMap} и {@link OpenAddressingMap} с ключами {@link Integer}.
+ * Бенчмарк put строит таблицу заново из примитивов, поэтому для
+ * обобщенных таблиц в него входит и упаковка.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PrimitiveMapBenchmark {
+
+    /**
+     * Количество операций в одном вызове бенчмарка get.
+     */
+    private static final int OPERATIONS = 1024;
+
+    @Param({"IntIntMap", "MyHashMap", "OpenAddressingMap"})
+    public String implementation;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] keys;
+    private int[] operations;
+    private IntIntMap primitiveMap;
+    private MyMap<Integer, Integer> boxedMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt();
+        }
+        operations = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            operations[i] = keys[random.nextInt(size)];
+        }
+        if (implementation.equals("IntIntMap")) {
+            primitiveMap = buildPrimitive();
+        } else {
+            boxedMap = buildBoxed();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int get() {
+        int sum = 0;
+        if (primitiveMap != null) {
+            for (int key : operations) {
+                sum += primitiveMap.get(key);
+            }
+        } else {
+            for (int key : operations) {
+                sum += boxedMap.get(key);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object put() {
+        return primitiveMap != null ? buildPrimitive() : buildBoxed();
+    }
+
+    private IntIntMap buildPrimitive() {
+        IntIntMap map = new IntIntMap();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    private MyMap<Integer, Integer> buildBoxed() {
+        MyMap<Integer, Integer> map = implementation.equals("MyHashMap") ? new MyHashMap<>() : new OpenAddressingMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+}
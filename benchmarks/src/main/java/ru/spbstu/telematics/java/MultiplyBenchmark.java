@@ -0,0 +1,74 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Умножение квадратных матриц: тройной цикл против блочного умножения
+ * через транспонирование второго сомножителя, последовательного и параллельного.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MultiplyBenchmark {
+
+    /**
+     * Сторона квадратных матриц.
+     */
+    @Param({"256", "1024"})
+    public int size;
+
+    private IntMatrix a;
+    private IntMatrix b;
+    private ParallelMatrixEngine engine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = new IntMatrix(size, size);
+        b = new IntMatrix(size, size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                a.set(row, col, random.nextInt());
+                b.set(row, col, random.nextInt());
+            }
+        }
+        engine = new ParallelMatrixEngine();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public IntMatrix reference() {
+        return MatrixMultiply.multiplyReference(a, b);
+    }
+
+    @Benchmark
+    public IntMatrix blocked() {
+        return MatrixMultiply.multiply(a, b);
+    }
+
+    @Benchmark
+    public IntMatrix parallel() {
+        return engine.multiply(a, b);
+    }
+}
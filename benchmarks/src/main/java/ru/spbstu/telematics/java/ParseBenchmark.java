@@ -0,0 +1,87 @@
+package ru.spbstu.telematics.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Разбор текстовых файлов в формате matrix.txt: эталонный разбор через
+ * split и Integer.parseInt, построчный однопроходный и побайтовый.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    /**
+     * Размер квадратной матрицы в файле.
+     */
+    @Param({"100", "1000"})
+    public int size;
+
+    /**
+     * Наибольший модуль значения: маленькие и большие числа разбираются по-разному.
+     */
+    @Param({"100", "2147483647"})
+    public int bound;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("matrix", ".txt");
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                text.append(random.nextInt(bound) - bound / 2).append(' ');
+            }
+            text.append('\n');
+        }
+        Files.writeString(file, text);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int[][] reference() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return App.readMatrixReference(reader);
+        }
+    }
+
+    @Benchmark
+    public IntMatrix lines() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return MatrixParser.parse(reader);
+        }
+    }
+
+    @Benchmark
+    public IntMatrix bytes() throws IOException {
+        return MatrixParser.parse(file);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Вывод матрицы в текстовом формате: поэлементный {@link App#printMatrix(int[][])}
+ * через System.out и буферизованный {@link MatrixWriter}. Вывод направляется
+ * в поток, отбрасывающий данные, чтобы измерялось только форматирование.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PrintBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private int[][] matrix;
+    private IntMatrix flatMatrix;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        matrix = new int[size][size];
+        for (int[] row : matrix) {
+            for (int col = 0; col < size; col++) {
+                row[col] = random.nextInt();
+            }
+        }
+        flatMatrix = IntMatrix.of(matrix);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void printMatrix() {
+        App.printMatrix(matrix);
+    }
+
+    @Benchmark
+    public void matrixWriter() throws IOException {
+        try (MatrixWriter writer = new MatrixWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8, true)) {
+            writer.write(flatMatrix);
+        }
+    }
+}
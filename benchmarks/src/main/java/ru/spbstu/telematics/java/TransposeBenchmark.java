@@ -0,0 +1,88 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Транспонирование матриц разной формы: квадратной, высокой и широкой.
+ * Количество элементов во всех формах одинаково, поэтому время можно сравнивать.
+ * Векторное микроядро включается в каждом запуске свойством
+ * {@code matrix.vector=true}, а скалярное блочное ядро замеряется отдельно
+ * для сравнения с векторным.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules=jdk.incubator.vector",
+        "-Dmatrix.vector=true"})
+@State(Scope.Benchmark)
+public class TransposeBenchmark {
+
+    /**
+     * Форма матрицы в виде "строки x столбцы".
+     */
+    @Param({"2048x2048", "16384x256", "256x16384"})
+    public String shape;
+
+    private int[][] matrix;
+    private IntMatrix flatMatrix;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = shape.split("x");
+        int rows = Integer.parseInt(dimensions[0]);
+        int cols = Integer.parseInt(dimensions[1]);
+
+        Random random = new Random(42);
+        matrix = new int[rows][cols];
+        for (int[] row : matrix) {
+            for (int col = 0; col < cols; col++) {
+                row[col] = random.nextInt();
+            }
+        }
+        flatMatrix = IntMatrix.of(matrix);
+    }
+
+    @Benchmark
+    public int[][] reference() {
+        return App.transposeMatrixReference(matrix);
+    }
+
+    @Benchmark
+    public int[][] transposeMatrix() {
+        return App.transposeMatrix(matrix);
+    }
+
+    @Benchmark
+    public IntMatrix flatCopy() {
+        return flatMatrix.transpose().copy();
+    }
+
+    @Benchmark
+    public int[] flatScalar() {
+        int rows = flatMatrix.rows();
+        int cols = flatMatrix.cols();
+        int[] target = new int[rows * cols];
+        int tileSize = BlockedTranspose.tileSize();
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                BlockedTranspose.transposeTileScalar(flatMatrix.data(), rows, cols, target,
+                        rowBlock, Math.min(rowBlock + tileSize, rows), colBlock, Math.min(colBlock + tileSize, cols));
+            }
+        }
+        return target;
+    }
+}
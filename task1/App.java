@@ -12,75 +12,428 @@ package ru.spbstu.telematics.java;
     }
 }*/
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 public class App {
     public static void main(String[] args) {
-        String fileName = "matrix.txt"; // Имя файла с матрицей
-        BufferedReader reader = null;
+        AppOptions options;
         try {
-            reader = new BufferedReader(new FileReader(fileName));
-            List<String> lines = new ArrayList<>();
+            options = AppOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
 
-            // Чтение строк из файла
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+        // Пул потоков создается, только если запрошена параллельная обработка
+        ParallelMatrixEngine engine = options.parallelism > 0
+                ? new ParallelMatrixEngine(options.parallelism) : null;
+        // Этапы измеряются всегда: события JFR почти ничего не стоят, пока запись выключена
+        StageStats stats = new StageStats();
+        try {
+            run(options, engine, stats);
+        } finally {
+            if (engine != null) {
+                engine.close();
             }
-            // Проверка на пустой файл
-            if (lines.isEmpty()) {
-                System.out.println("Файл со значениями исходной матрицы пустой");
-                return;
+            if (options.stats) {
+                System.err.print(stats.format());
             }
+        }
+    }
 
-            // Определение размеров матрицы
-            int rows = lines.size();
-            int cols = lines.get(0).trim().split("\\s+").length;
-
-            // Создание и заполнение матрицы
-            int[][] matrix = new int[rows][cols];
-            for (int row = 0; row < rows; row++) {
-                String[] values = lines.get(row).trim().split("\\s+");
-                if (values.length != cols) {
-                    System.out.println("Некорректное количество элементов в строке " + (row + 1));
+    // Чтение, транспонирование и вывод матрицы с заданными параметрами
+    private static void run(AppOptions options, ParallelMatrixEngine engine, StageStats stats) {
+        // Имя файла с матрицей; "-" означает стандартный ввод
+        String fileName = options.fileName;
+        IntMatrix matrix;
+        try {
+            if (options.serve != null) {
+                // Долго работающий сервис: матрицы приходят по сокету без запуска JVM на каждую
+                MatrixServer.serve(options.serve, options.maxFrameSize);
+                return;
+            }
+            if (options.batch != null) {
+                // Пакетная обработка множества файлов за один запуск
+                runBatch(options, stats);
+                return;
+            }
+            if (options.convertFile != null) {
+                // Только преобразование текстового файла в двоичный формат
+                BinaryMatrixFile.convert(Paths.get(fileName), Paths.get(options.convertFile));
+                return;
+            }
+            if (options.multiplyFile != null) {
+                // Умножение на матрицу из второго файла
+                runMultiply(options, engine, stats);
+                return;
+            }
+            if (options.externalMemoryBudget > 0 && !fileName.equals("-")) {
+                // Транспонирование вне памяти с ограниченным объемом буферов
+                runExternal(options, stats);
+                return;
+            }
+            if (options.offHeap) {
+                // Матрица хранится вне кучи и не ограничена 2^31 элементами
+                runOffHeap(options, stats);
+                return;
+            }
+            if (options.typed) {
+                // Элементы хранятся в самом узком типе, вмещающем все значения
+                runTyped(options, stats);
+                return;
+            }
+            // Чтение, разбор и проверка выполняются за один проход и измеряются вместе
+            long inputBytes = fileName.equals("-") ? 0 : Files.size(Paths.get(fileName));
+            StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+            ParsedMatrix parsed = null;
+            matrix = null;
+            if (fileName.equals("-")) {
+                // Однопроходный построчный разбор стандартного ввода
+                parsed = MatrixParser.parseAdaptive(new BufferedReader(new InputStreamReader(System.in)));
+            } else if (BinaryMatrixFile.isBinary(Paths.get(fileName))) {
+                if (options.binaryOutputFile != null) {
+                    // Транспонирование напрямую между отображенными в память файлами
+                    BinaryMatrixFile.transpose(Paths.get(fileName), Paths.get(options.binaryOutputFile));
                     return;
                 }
-                for (int col = 0; col < cols; col++) {
-                    try {
-                        matrix[row][col] = Integer.parseInt(values[col]);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Некорректное значение в строке " + (row + 1) + ", столбце " + (col + 1));
-                        return;
-                    }
-                }
+                matrix = BinaryMatrixFile.load(Paths.get(fileName));
+            } else if (engine != null) {
+                // Параллельный разбор частей файла
+                matrix = engine.parse(Paths.get(fileName));
+            } else {
+                // Побайтовый разбор файла с проверкой размеров и значений;
+                // матрица почти из одних нулей хранится разреженно
+                parsed = MatrixParser.parseAdaptive(Paths.get(fileName));
+            }
+            if (parsed != null && parsed.isSparse()) {
+                SparseIntMatrix sparse = parsed.sparse();
+                parsing.end(inputBytes, (long) sparse.rows() * sparse.cols());
+                runSparse(options, sparse, stats);
+                return;
+            }
+            if (parsed != null) {
+                matrix = parsed.dense();
             }
+            parsing.end(inputBytes, (long) matrix.rows() * matrix.cols());
+        } catch (MatrixFormatException e) {
+            System.out.println(e.getMessage());
+            return;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
 
-            // Транспонирование матрицы и вывод на экран
-            int[][] transposedMatrix = transposeMatrix(matrix);
-            System.out.println("Исходная матрица:");
-            printMatrix(matrix);
-            System.out.println("Транспонированная матрица:");
-            printMatrix(transposedMatrix);
+        // Транспонирование матрицы и вывод на экран, в текстовый или двоичный файл
+        long elements = (long) matrix.rows() * matrix.cols();
+        StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+        IntMatrix transposedMatrix = engine != null ? engine.transpose(matrix) : transposeMatrix(matrix);
+        transposing.end(elements * Integer.BYTES, elements);
+        try {
+            write(options, matrix, transposedMatrix, stats);
         } catch (IOException e) {
             e.printStackTrace();
+        }
+    }
+
+    // Вывод исходной и транспонированной матриц на экран или в текстовый файл,
+    // либо только транспонированной в двоичный файл
+    private static void write(AppOptions options, IntMatrix matrix, IntMatrix transposedMatrix,
+                              StageStats stats) throws IOException {
+        write(options, stats, (long) matrix.rows() * matrix.cols(),
+                file -> BinaryMatrixFile.save(transposedMatrix, file),
+                writer -> writer.write(matrix), writer -> writer.write(transposedMatrix));
+    }
+
+    // Запись матрицы в двоичный файл
+    private interface BinaryOutput {
+        void save(Path file) throws IOException;
+    }
+
+    // Вывод текста через MatrixWriter
+    private interface TextOutput {
+        void write(MatrixWriter writer) throws IOException;
+    }
+
+    // Общий вывод результата транспонирования: результат в двоичный файл, если он задан,
+    // иначе исходная и транспонированная матрицы с заголовками на экран или в текстовый файл
+    private static void write(AppOptions options, StageStats stats, long elements, BinaryOutput binary,
+                              TextOutput original, TextOutput transposed) throws IOException {
+        write(options, stats, elements, binary, 2 * elements, writer -> {
+            writer.writeLine("Исходная матрица:");
+            original.write(writer);
+            writer.writeLine("Транспонированная матрица:");
+            transposed.write(writer);
+        });
+    }
+
+    // Общий вывод результата: в двоичный файл, если он задан, иначе текстом на экран
+    // или в текстовый файл. Время и объем вывода учитываются как этап "Вывод"
+    private static void write(AppOptions options, StageStats stats, long elements, BinaryOutput binary,
+                              long textElements, TextOutput text) throws IOException {
+        StageStats.Stage writing = stats.begin(StageStats.WRITE);
+        if (options.binaryOutputFile != null) {
+            Path file = Paths.get(options.binaryOutputFile);
+            binary.save(file);
+            writing.end(Files.size(file), elements);
+            return;
+        }
+        writing.end(writeText(options, text), textElements);
+    }
+
+    // Открывает текстовый вывод (файл или экран), выводит текст и возвращает количество записанных байтов
+    private static long writeText(AppOptions options, TextOutput text) throws IOException {
+        try (MatrixWriter writer = options.outputFile != null
+                ? new MatrixWriter(Files.newOutputStream(Paths.get(options.outputFile)))
+                : MatrixWriter.stdout()) {
+            text.write(writer);
+            writer.flush();
+            return writer.bytesWritten();
+        }
+    }
+
+    // Транспонирование и вывод разреженной матрицы: память и время
+    // пропорциональны количеству ненулевых элементов
+    private static void runSparse(AppOptions options, SparseIntMatrix matrix, StageStats stats) throws IOException {
+        long elements = (long) matrix.rows() * matrix.cols();
+        StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+        SparseIntMatrix transposedMatrix = transposeMatrix(matrix);
+        transposing.end((long) matrix.nonZeros() * (2 * Integer.BYTES), matrix.nonZeros());
+
+        write(options, stats, elements, file -> BinaryMatrixFile.save(transposedMatrix.toDense(), file),
+                writer -> writer.write(matrix), writer -> writer.write(transposedMatrix));
+    }
+
+    // Чтение, транспонирование и вывод матрицы с элементами byte, short, int
+    // или long: тип выбирается по наименьшему и наибольшему значениям
+    private static void runTyped(AppOptions options, StageStats stats) throws IOException {
+        String fileName = options.fileName;
+        long inputBytes = fileName.equals("-") ? 0 : Files.size(Paths.get(fileName));
+        StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+        TypedMatrix matrix;
+        if (fileName.equals("-")) {
+            matrix = MatrixParser.parseTyped(new BufferedReader(new InputStreamReader(System.in)));
+        } else if (BinaryMatrixFile.isBinary(Paths.get(fileName))) {
+            matrix = BinaryMatrixFile.loadTyped(Paths.get(fileName));
+        } else {
+            matrix = MatrixParser.parseTyped(Paths.get(fileName));
+        }
+        long elements = (long) matrix.rows() * matrix.cols();
+        parsing.end(inputBytes, elements);
+
+        StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+        TypedMatrix transposedMatrix = transposeMatrix(matrix);
+        transposing.end(elements * matrix.type().bytes(), elements);
+
+        write(options, stats, elements, file -> BinaryMatrixFile.save(transposedMatrix, file),
+                writer -> writer.write(matrix), writer -> writer.write(transposedMatrix));
+    }
+
+    // Чтение двух матриц, умножение через транспонирование второй и вывод произведения
+    private static void runMultiply(AppOptions options, ParallelMatrixEngine engine,
+                                    StageStats stats) throws IOException {
+        String fileName = options.fileName;
+        long inputBytes = (fileName.equals("-") ? 0 : Files.size(Paths.get(fileName)))
+                + Files.size(Paths.get(options.multiplyFile));
+        StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+        IntMatrix left = fileName.equals("-")
+                ? MatrixParser.parse(new BufferedReader(new InputStreamReader(System.in)))
+                : loadMatrix(Paths.get(fileName));
+        IntMatrix right = loadMatrix(Paths.get(options.multiplyFile));
+        parsing.end(inputBytes, (long) left.rows() * left.cols() + (long) right.rows() * right.cols());
+
+        StageStats.Stage multiplying = stats.begin(StageStats.COMPUTE);
+        IntMatrix product;
+        try {
+            product = engine != null ? engine.multiply(left, right) : MatrixMultiply.multiply(left, right);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        long elements = (long) product.rows() * product.cols();
+        multiplying.end((long) left.rows() * left.cols() * Integer.BYTES
+                + (long) right.rows() * right.cols() * Integer.BYTES, elements);
+
+        write(options, stats, elements, file -> BinaryMatrixFile.save(product, file), elements, writer -> {
+            writer.writeLine("Произведение матриц:");
+            writer.write(product);
+        });
+    }
+
+    // Загрузка матрицы из текстового или двоичного файла
+    private static IntMatrix loadMatrix(Path file) throws IOException {
+        return BinaryMatrixFile.isBinary(file) ? BinaryMatrixFile.load(file) : MatrixParser.parse(file);
+    }
+
+    // Пакетное транспонирование файлов из каталога или по шаблону:
+    // по каждому файлу выводится "OK" или сообщение об ошибке
+    private static void runBatch(AppOptions options, StageStats stats) throws IOException {
+        List<Path> files = BatchTranspose.resolve(options.batch);
+        if (files.isEmpty()) {
+            System.out.println("Не найдено файлов для обработки: " + options.batch);
+            return;
+        }
+        BatchTranspose batch = new BatchTranspose(Paths.get(options.outputDirectory), options.maxOpenFiles);
+        try {
+            // Файлы обрабатываются параллельно, поэтому измеряется весь пакет целиком
+            long inputBytes = 0;
+            for (Path file : files) {
+                inputBytes += Files.size(file);
+            }
+            StageStats.Stage processing = stats.begin(StageStats.BATCH);
+            BatchTranspose.Summary summary = batch.run(files);
+            processing.end(inputBytes, 0);
+            System.out.print(summary.format());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    // Чтение, транспонирование и вывод матрицы, хранящейся вне кучи Java:
+    // сборщик мусора не просматривает ее данные, а память освобождается сразу
+    private static void runOffHeap(AppOptions options, StageStats stats) throws IOException {
+        if (ModuleLayer.boot().findModule("jdk.incubator.foreign").isEmpty()) {
+            System.out.println("Для хранения вне кучи запустите программу с параметром JVM "
+                    + "--add-modules jdk.incubator.foreign");
+            return;
+        }
+        String fileName = options.fileName;
+        long inputBytes = fileName.equals("-") ? 0 : Files.size(Paths.get(fileName));
+        StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+        try (OffHeapMatrix matrix = fileName.equals("-")
+                ? OffHeapMatrix.parse(new BufferedReader(new InputStreamReader(System.in)))
+                : BinaryMatrixFile.isBinary(Paths.get(fileName))
+                ? OffHeapMatrix.load(Paths.get(fileName))
+                : OffHeapMatrix.parse(Paths.get(fileName))) {
+            long elements = matrix.rows() * matrix.cols();
+            parsing.end(inputBytes, elements);
+
+            StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+            try (OffHeapMatrix transposedMatrix = transposeMatrix(matrix)) {
+                transposing.end(elements * Integer.BYTES, elements);
+                write(options, stats, elements, transposedMatrix::save,
+                        writer -> writer.write(matrix), writer -> writer.write(transposedMatrix));
+            }
+        }
+    }
+
+    // Транспонирование матрицы, не помещающейся в память: исходная и
+    // транспонированная матрицы хранятся в двоичных файлах и выводятся потоково
+    private static void runExternal(AppOptions options, StageStats stats) throws IOException {
+        Path source = Paths.get(options.fileName);
+        Path binaryOutput = options.binaryOutputFile != null ? Paths.get(options.binaryOutputFile) : null;
+        Path output = options.outputFile != null ? Paths.get(options.outputFile)
+                : binaryOutput != null ? binaryOutput : source;
+        Path binarySource = null;
+        Path binaryTarget = binaryOutput != null ? binaryOutput : ExternalTranspose.temporaryFile(output);
+        try {
+            if (!BinaryMatrixFile.isBinary(source)) {
+                // Разбор - потоковое преобразование текста во временный двоичный файл
+                StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+                binarySource = ExternalTranspose.temporaryFile(output);
+                BinaryMatrixFile.convert(source, binarySource);
+                parsing.end(Files.size(source), binaryElements(binarySource));
+                source = binarySource;
+            }
+            StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+            ExternalTranspose.transposeBinary(source, binaryTarget, options.externalMemoryBudget);
+            long elements = binaryElements(binaryTarget);
+            transposing.end(Files.size(binaryTarget), elements);
+            if (binaryOutput != null) {
+                // Результат уже записан транспонированием
+                return;
+            }
+
+            Path binarySourceFile = source;
+            StageStats.Stage writing = stats.begin(StageStats.WRITE);
+            long bytes = writeText(options, writer -> {
+                writer.writeLine("Исходная матрица:");
+                ExternalTranspose.writeText(binarySourceFile, writer);
+                writer.writeLine("Транспонированная матрица:");
+                ExternalTranspose.writeText(binaryTarget, writer);
+            });
+            writing.end(bytes, 2 * elements);
         } finally {
-            try {
-                if (reader != null) {
-                    reader.close();
+            if (binarySource != null) {
+                Files.deleteIfExists(binarySource);
+            }
+            if (binaryOutput == null) {
+                Files.deleteIfExists(binaryTarget);
+            }
+        }
+    }
+
+    // Количество элементов матрицы по заголовку двоичного файла
+    private static long binaryElements(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryMatrixFile.Header header = BinaryMatrixFile.readHeader(channel);
+            return header.rows() * header.cols();
+        }
+    }
+
+    // Эталонный метод чтения матрицы: все строки читаются в список
+    // и разбираются через split и Integer.parseInt
+    public static int[][] readMatrixReference(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        // Чтение строк из файла
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        // Проверка на пустой файл
+        if (lines.isEmpty()) {
+            throw MatrixFormatException.empty();
+        }
+
+        // Определение размеров матрицы
+        int rows = lines.size();
+        int cols = lines.get(0).trim().split("\\s+").length;
+
+        // Создание и заполнение матрицы
+        int[][] matrix = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            String[] values = lines.get(row).trim().split("\\s+");
+            if (values.length != cols) {
+                throw new MatrixFormatException(MatrixFormatException.Kind.ELEMENT_COUNT, row + 1, 0);
+            }
+            for (int col = 0; col < cols; col++) {
+                try {
+                    matrix[row][col] = Integer.parseInt(values[col]);
+                } catch (NumberFormatException e) {
+                    throw new MatrixFormatException(MatrixFormatException.Kind.VALUE, row + 1, col + 1);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
             }
         }
+        return matrix;
     }
 
-    // Метод для транспонирования матрицы
+    // Начиная с этого количества элементов транспонирование выполняется блоками
+    public static final long BLOCKED_TRANSPOSE_THRESHOLD = 1L << 16;
+
+    // Метод для транспонирования матрицы: небольшие матрицы транспонируются
+    // эталонным методом, большие - блочным, который бережнее к кэшу
     public static int[][] transposeMatrix(int[][] matrix) {
         int rows = matrix.length;
         int cols = matrix[0].length;
+
+        if ((long) rows * cols < BLOCKED_TRANSPOSE_THRESHOLD) {
+            return transposeMatrixReference(matrix);
+        }
+        return BlockedTranspose.transpose(matrix, BlockedTranspose.tileSize());
+    }
+
+    // Эталонный метод транспонирования матрицы поэлементным обходом
+    public static int[][] transposeMatrixReference(int[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
         int[][] transposedMatrix = new int[cols][rows];
 
         for (int row = 0; row < rows; row++) {
@@ -92,23 +445,81 @@ public class App {
         return transposedMatrix;
     }
 
+    // Метод для транспонирования плоской матрицы: возвращает представление
+    // с переставленными шагами, данные не копируются
+    public static IntMatrix transposeMatrix(IntMatrix matrix) {
+        return matrix.transpose();
+    }
+
+    // Метод для транспонирования разреженной матрицы: преобразование CSR в CSC
+    // за время, пропорциональное количеству ненулевых элементов
+    public static SparseIntMatrix transposeMatrix(SparseIntMatrix matrix) {
+        return matrix.transpose();
+    }
+
+    // Метод для транспонирования матрицы с элементами любого целого типа
+    // блочным ядром для этого типа
+    public static TypedMatrix transposeMatrix(TypedMatrix matrix) {
+        return matrix.transpose();
+    }
+
+    // Метод для транспонирования матрицы вне кучи в новую матрицу вне кучи
+    public static OffHeapMatrix transposeMatrix(OffHeapMatrix matrix) {
+        return matrix.transpose();
+    }
+
+    // Метод для транспонирования квадратной матрицы на месте, без выделения новой
+    public static void transposeMatrixInPlace(int[][] matrix) {
+        InPlaceTranspose.transposeSquare(matrix, BlockedTranspose.tileSize());
+    }
+
+    // Метод для транспонирования плоской матрицы любой формы на месте
+    public static void transposeMatrixInPlace(IntMatrix matrix) {
+        matrix.transposeInPlace();
+    }
+
+    // Метод для вывода плоской матрицы на экран
+    public static void printMatrix(IntMatrix matrix) {
+        printMatrix(matrix.rows(), matrix.cols(), (row, col) -> matrix.get((int) row, (int) col));
+    }
+
+    // Метод для вывода разреженной матрицы на экран
+    public static void printMatrix(SparseIntMatrix matrix) {
+        printMatrix(matrix.rows(), matrix.cols(), (row, col) -> matrix.get((int) row, (int) col));
+    }
+
+    // Метод для вывода матрицы с элементами любого целого типа на экран
+    public static void printMatrix(TypedMatrix matrix) {
+        printMatrix(matrix.rows(), matrix.cols(), (row, col) -> matrix.get((int) row, (int) col));
+    }
+
+    // Метод для вывода матрицы вне кучи на экран
+    public static void printMatrix(OffHeapMatrix matrix) {
+        printMatrix(matrix.rows(), matrix.cols(), matrix::get);
+    }
+
     // Метод для вывода матрицы на экран
     public static void printMatrix(int[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
+        printMatrix(matrix.length, matrix[0].length, (row, col) -> matrix[(int) row][(int) col]);
+    }
+
+    // Чтение элемента матрицы любого вида по номерам строки и столбца
+    private interface ElementReader {
+        long get(long row, long col);
+    }
 
+    // Общий вывод матрицы на экран: элементы через пробел, по строке на строку матрицы
+    private static void printMatrix(long rows, long cols, ElementReader elements) {
         if (rows == 0 || cols == 0) {
             System.out.println("Матрица пустая");
             return;
         }
 
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                System.out.print(matrix[row][col] + " ");
+        for (long row = 0; row < rows; row++) {
+            for (long col = 0; col < cols; col++) {
+                System.out.print(elements.get(row, col) + " ");
             }
             System.out.println();
         }
     }
-
-
 }
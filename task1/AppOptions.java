@@ -0,0 +1,160 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Параметры командной строки {@link App}.
+ * Формат: {@code [параметры] [файл]}, где файл "-" означает стандартный ввод.
+ */
+class AppOptions {
+    /**
+     * Имя файла с матрицей.
+     */
+    String fileName = "matrix.txt";
+
+    /**
+     * Количество потоков для разбора и транспонирования; 0 - без распараллеливания.
+     */
+    int parallelism;
+
+    /**
+     * Файл для вывода результата или {@code null} для стандартного вывода.
+     */
+    String outputFile;
+
+    /**
+     * Двоичный файл для транспонированной матрицы вместо текстового вывода или {@code null}.
+     */
+    String binaryOutputFile;
+
+    /**
+     * Двоичный файл, в который нужно только преобразовать текстовую матрицу, или {@code null}.
+     */
+    String convertFile;
+
+    /**
+     * Бюджет памяти в байтах для транспонирования вне памяти; 0 - обычный режим.
+     */
+    long externalMemoryBudget;
+
+    /**
+     * Хранить ли элементы в самом узком подходящем типе (byte, short, int или long).
+     */
+    boolean typed;
+
+    /**
+     * Хранить ли матрицу вне кучи Java (нужен модуль jdk.incubator.foreign).
+     */
+    boolean offHeap;
+
+    /**
+     * Каталог или шаблон glob с файлами для пакетной обработки или {@code null}.
+     */
+    String batch;
+
+    /**
+     * Каталог для результатов пакетной обработки.
+     */
+    String outputDirectory;
+
+    /**
+     * Наибольшее количество одновременно открытых файлов при пакетной обработке.
+     */
+    int maxOpenFiles = BatchTranspose.DEFAULT_MAX_OPEN_FILES;
+
+    /**
+     * Выводить ли в стандартный поток ошибок сводку по этапам: время, пропускную способность и выделенную память.
+     */
+    boolean stats;
+
+    /**
+     * Файл с правой матрицей для умножения на матрицу из {@link #fileName} или {@code null}.
+     */
+    String multiplyFile;
+
+    /**
+     * Адрес, на котором запустить сервис транспонирования ({@code порт} или {@code unix:путь}), или {@code null}.
+     */
+    String serve;
+
+    /**
+     * Наибольшая длина запроса к сервису транспонирования в байтах.
+     */
+    int maxFrameSize = MatrixServer.DEFAULT_MAX_FRAME_SIZE;
+
+    /**
+     * Разбирает аргументы командной строки.
+     *
+     * @param args Аргументы командной строки.
+     * @return Параметры запуска.
+     * @throws IllegalArgumentException Если параметр неизвестен или его значение некорректно.
+     */
+    static AppOptions parse(String[] args) {
+        AppOptions options = new AppOptions();
+        for (String arg : args) {
+            if (arg.equals("--parallel")) {
+                options.parallelism = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                options.parallelism = positive(arg, value(arg));
+            } else if (arg.startsWith("--out=")) {
+                options.outputFile = value(arg);
+            } else if (arg.startsWith("--binary-out=")) {
+                options.binaryOutputFile = value(arg);
+            } else if (arg.startsWith("--convert=")) {
+                options.convertFile = value(arg);
+            } else if (arg.equals("--external")) {
+                options.externalMemoryBudget = ExternalTranspose.DEFAULT_MEMORY_BUDGET;
+            } else if (arg.startsWith("--external=")) {
+                // Бюджет задается в мегабайтах
+                options.externalMemoryBudget = (long) positive(arg, value(arg)) << 20;
+            } else if (arg.equals("--typed")) {
+                options.typed = true;
+            } else if (arg.equals("--offheap")) {
+                options.offHeap = true;
+            } else if (arg.startsWith("--batch=")) {
+                options.batch = value(arg);
+            } else if (arg.startsWith("--out-dir=")) {
+                options.outputDirectory = value(arg);
+            } else if (arg.startsWith("--max-open=")) {
+                options.maxOpenFiles = positive(arg, value(arg));
+            } else if (arg.equals("--stats")) {
+                options.stats = true;
+            } else if (arg.startsWith("--multiply=")) {
+                options.multiplyFile = value(arg);
+            } else if (arg.startsWith("--serve=")) {
+                options.serve = value(arg);
+                // Некорректный адрес отвергается до запуска
+                MatrixServer.address(options.serve);
+            } else if (arg.startsWith("--max-frame=")) {
+                // Ограничение задается в мегабайтах
+                int megabytes = positive(arg, value(arg));
+                if (megabytes > Integer.MAX_VALUE >> 20) {
+                    throw new IllegalArgumentException("Слишком большая длина запроса: " + arg);
+                }
+                options.maxFrameSize = megabytes << 20;
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            } else {
+                options.fileName = arg;
+            }
+        }
+        if (options.batch != null && options.outputDirectory == null) {
+            throw new IllegalArgumentException("Для пакетной обработки укажите выходной каталог: --out-dir=<каталог>");
+        }
+        return options;
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    private static int positive(String arg, String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Сообщение формируется ниже
+        }
+        throw new IllegalArgumentException("Некорректное значение параметра: " + arg);
+    }
+}
@@ -3,12 +3,32 @@ package ru.spbstu.telematics.java;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 public class AppTest {
     @Test
@@ -57,6 +77,597 @@ public class AppTest {
 
 
 
+    @Test
+    public void testBlockedTransposeMatchesReference() {
+        int[][] matrix = randomMatrix(300, 517);
+
+        int[][] expected = App.transposeMatrixReference(matrix);
+
+        assertArrayEquals(expected, App.transposeMatrix(matrix));
+        assertArrayEquals(expected, BlockedTranspose.transpose(matrix, 7));
+        assertArrayEquals(expected, BlockedTranspose.transpose(matrix, 1024));
+    }
+
+    @Test
+    public void testVectorTransposeMatchesScalar() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            // Vector API не подключен при запуске; микроядро вызывается напрямую,
+            // поэтому свойство matrix.vector для проверки не нужно
+            return;
+        }
+        int[][] shapes = {{8, 8}, {16, 24}, {17, 29}, {64, 64}, {100, 37}, {1, 9}, {9, 1}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            int[][] matrix = randomMatrix(rows, cols);
+            int[] flat = IntMatrix.of(matrix).data();
+
+            int[] scalar = new int[rows * cols];
+            int[] vector = new int[rows * cols];
+            BlockedTranspose.transposeTileScalar(flat, rows, cols, scalar, 0, rows, 0, cols);
+            VectorTranspose.transposeTile(flat, rows, cols, vector, 0, rows, 0, cols);
+            assertArrayEquals(scalar, vector, rows + "x" + cols);
+
+            int[][] transposed = new int[cols][rows];
+            VectorTranspose.transposeTile(matrix, transposed, 0, rows, 0, cols);
+            assertArrayEquals(App.transposeMatrixReference(matrix), transposed, rows + "x" + cols);
+        }
+    }
+
+    @Test
+    public void testIntMatrixTransposeIsView() {
+        int[][] source = randomMatrix(70, 45);
+        IntMatrix matrix = IntMatrix.of(source);
+
+        IntMatrix transposed = App.transposeMatrix(matrix);
+
+        assertArrayEquals(App.transposeMatrixReference(source), transposed.toArray());
+        assertArrayEquals(App.transposeMatrixReference(source), transposed.copy().toArray());
+        assertTrue(transposed.copy().isRowMajor());
+        assertArrayEquals(source, transposed.transpose().toArray());
+
+        // Представление разделяет данные с исходной матрицей
+        matrix.set(3, 5, 42);
+        assertTrue(transposed.get(5, 3) == 42);
+    }
+
+    @Test
+    public void testInPlaceTranspose() {
+        int[][] square = randomMatrix(150, 150);
+        int[][] expectedSquare = App.transposeMatrixReference(square);
+        App.transposeMatrixInPlace(square);
+        assertArrayEquals(expectedSquare, square);
+
+        int[][] source = randomMatrix(37, 113);
+        IntMatrix rectangular = IntMatrix.of(source);
+        App.transposeMatrixInPlace(rectangular);
+        assertTrue(rectangular.isRowMajor());
+        assertArrayEquals(App.transposeMatrixReference(source), rectangular.toArray());
+
+        IntMatrix view = IntMatrix.of(source).transpose();
+        App.transposeMatrixInPlace(view);
+        assertArrayEquals(source, view.toArray());
+    }
+
+    @Test
+    public void testParserMatchesReference() throws IOException {
+        String[] inputs = {
+                "1 2 3\n4 5 6\n7 8 9",
+                "  1\t-2  +3 \r\n4 5 6\n",
+                "2147483647 -2147483648",
+                "1 2 3\n4 a 6\n7 8 9",
+                "1 2 3\n4 5\n",
+                "1 2 3\n4 a\n",
+                "1 2\n\n",
+                "1\n\n",
+                "1 2 3\n ",
+                "2147483648",
+                "-",
+                "",
+                "1\u00012 3",
+                "\u0001 1 2\u0001\n3 4",
+                "1 \u0001 2\n3 4 5",
+                "1 2 \u0001\n3\u000B4\f"
+        };
+
+        for (String input : inputs) {
+            assertEquals(parseReference(input), parse(input), input);
+            assertEquals(parseReference(input), parseLines(input), input);
+        }
+        assertEquals("Некорректное значение в строке 2, столбце 2", parse("1 2 3\n4 a 6\n7 8 9"));
+        assertEquals("Некорректное количество элементов в строке 2", parse("1 2 3\n4 5\n"));
+        assertEquals("Файл со значениями исходной матрицы пустой", parse(""));
+        assertEquals("Некорректное значение в строке 1, столбце 1", parse("1\u00012 3"));
+    }
+
+    @Test
+    public void testParallelEngineMatchesSequential() throws IOException {
+        int[][] source = randomMatrix(1500, 211);
+        StringBuilder text = new StringBuilder();
+        for (int[] row : source) {
+            for (int value : row) {
+                text.append(value).append(' ');
+            }
+            text.append('\n');
+        }
+        String valid = text.toString();
+        // Ошибка в строке, попадающей в одну из последних частей файла
+        String invalid = valid.substring(0, valid.length() - 20) + "x\n";
+
+        try (ParallelMatrixEngine engine = new ParallelMatrixEngine(4)) {
+            assertEquals(parse(valid), parse(valid, engine));
+            assertEquals(parse(invalid), parse(invalid, engine));
+            assertArrayEquals(App.transposeMatrixReference(source), engine.transpose(source));
+            assertArrayEquals(App.transposeMatrixReference(source), engine.transpose(IntMatrix.of(source)).toArray());
+        }
+    }
+
+    @Test
+    public void testMatrixWriterMatchesPrintMatrix() throws IOException {
+        int[][] source = randomMatrix(40, 25);
+        source[0][0] = Integer.MIN_VALUE;
+        source[0][1] = Integer.MAX_VALUE;
+        source[0][2] = 0;
+        source[0][3] = -7;
+        IntMatrix matrix = IntMatrix.of(source);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(expected, true, StandardCharsets.UTF_8));
+        try {
+            App.printMatrix(source);
+            App.printMatrix(App.transposeMatrix(source));
+        } finally {
+            System.setOut(original);
+        }
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (MatrixWriter writer = new MatrixWriter(actual, StandardCharsets.UTF_8, true)) {
+            writer.write(matrix);
+            writer.write(App.transposeMatrix(matrix));
+        }
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testBinaryMatrixFile() throws IOException {
+        int[][] source = randomMatrix(33, 71);
+        Path text = Files.createTempFile("matrix", ".txt");
+        Path binary = Files.createTempFile("matrix", ".bin");
+        Path transposed = Files.createTempFile("transposed", ".bin");
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (MatrixWriter writer = new MatrixWriter(content, StandardCharsets.UTF_8, true)) {
+                writer.write(source);
+            }
+            Files.write(text, content.toByteArray());
+
+            BinaryMatrixFile.convert(text, binary);
+            assertTrue(BinaryMatrixFile.isBinary(binary));
+            assertArrayEquals(source, BinaryMatrixFile.load(binary).toArray());
+
+            BinaryMatrixFile.transpose(binary, transposed);
+            assertArrayEquals(App.transposeMatrixReference(source), BinaryMatrixFile.load(transposed).toArray());
+
+            BinaryMatrixFile.save(IntMatrix.of(source).transpose(), transposed);
+            assertArrayEquals(App.transposeMatrixReference(source), BinaryMatrixFile.load(transposed).toArray());
+
+            // Произведение размеров из поврежденного заголовка не помещается в long
+            byte[] corrupted = Files.readAllBytes(binary);
+            ByteBuffer.wrap(corrupted).order(ByteOrder.LITTLE_ENDIAN).putLong(8, 1L << 32).putLong(16, 1L << 32);
+            Files.write(binary, corrupted);
+            assertEquals("Двоичный файл матрицы поврежден",
+                    assertThrows(IOException.class, () -> BinaryMatrixFile.load(binary)).getMessage());
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(transposed);
+        }
+    }
+
+    @Test
+    public void testExternalTransposeWithSmallBudget() throws IOException {
+        int[][] source = randomMatrix(123, 457);
+        Path binary = Files.createTempFile("matrix", ".bin");
+        Path transposed = Files.createTempFile("transposed", ".bin");
+        try {
+            BinaryMatrixFile.save(IntMatrix.of(source), binary);
+
+            // Бюджета хватает лишь на небольшие блоки, неровно делящие матрицу
+            ExternalTranspose.transpose(binary, transposed, 40_000);
+
+            assertArrayEquals(App.transposeMatrixReference(source), BinaryMatrixFile.load(transposed).toArray());
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(transposed);
+        }
+    }
+
+    @Test
+    public void testSparseMatrix() throws IOException {
+        int[][] source = sparseMatrix(300, 400, 0.02);
+        SparseIntMatrix sparse = SparseIntMatrix.of(source);
+
+        assertArrayEquals(source, sparse.toArray());
+        assertArrayEquals(App.transposeMatrixReference(source), App.transposeMatrix(sparse).toArray());
+        assertEquals(source[7][11], sparse.get(7, 11));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (MatrixWriter dense = new MatrixWriter(expected, StandardCharsets.UTF_8, true);
+             MatrixWriter writer = new MatrixWriter(actual, StandardCharsets.UTF_8, true)) {
+            dense.write(App.transposeMatrix(source));
+            writer.write(sparse.transpose());
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        // Разреженная матрица, плотная матрица, матрица, в которой ненулевые
+        // элементы появляются только после первых SAMPLE_SIZE элементов, и матрица,
+        // в которой после SAMPLE_SIZE доля ненулевых элементов превышает треть
+        // и приемник возвращается к плотному массиву
+        int[][] late = sparseMatrix(400, 400, 0);
+        for (int row = 300; row < 400; row++) {
+            Arrays.fill(late[row], 5);
+        }
+        int[][] switchBack = sparseMatrix(350, 512, 0);
+        int[][] denseRows = randomMatrix(150, 512);
+        for (int row = 200; row < 350; row++) {
+            switchBack[row] = denseRows[row - 200];
+        }
+        int[][][] inputs = {source, randomMatrix(50, 60), late, switchBack};
+        boolean[] sparseExpected = {true, false, false, false};
+        for (int i = 0; i < inputs.length; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int[] row : inputs[i]) {
+                for (int value : row) {
+                    text.append(value).append(' ');
+                }
+                text.append('\n');
+            }
+            Path file = Files.createTempFile("matrix", ".txt");
+            try {
+                Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+                ParsedMatrix parsed = MatrixParser.parseAdaptive(file);
+                assertEquals(sparseExpected[i], parsed.isSparse());
+                assertArrayEquals(inputs[i], parsed.dense().toArray());
+                assertArrayEquals(inputs[i], parsed.sparse().toArray());
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testTypedMatrix() throws IOException {
+        String[] inputs = {
+                "1 -2 3\n4 5 127\n-128 0 9",
+                "1 2\n300 -32768",
+                "70000 1\n2 -2147483648",
+                "9223372036854775807 1\n-9223372036854775808 2147483648"
+        };
+        ElementType[] types = {ElementType.BYTE, ElementType.SHORT, ElementType.INT, ElementType.LONG};
+
+        for (int i = 0; i < inputs.length; i++) {
+            TypedMatrix matrix = MatrixParser.parseTyped(new BufferedReader(new StringReader(inputs[i])));
+            assertEquals(types[i], matrix.type(), inputs[i]);
+
+            long[][] expected = Arrays.stream(inputs[i].split("\n"))
+                    .map(line -> Arrays.stream(line.split(" ")).mapToLong(Long::parseLong).toArray())
+                    .toArray(long[][]::new);
+            assertArrayEquals(expected, matrix.toArray());
+
+            long[][] transposed = App.transposeMatrix(matrix).toArray();
+            for (int row = 0; row < expected.length; row++) {
+                for (int col = 0; col < expected[0].length; col++) {
+                    assertEquals(expected[row][col], transposed[col][row]);
+                }
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (MatrixWriter writer = new MatrixWriter(output, StandardCharsets.UTF_8, true)) {
+                writer.write(matrix);
+            }
+            String separator = System.lineSeparator();
+            assertEquals(inputs[i].replace("\n", " " + separator) + " " + separator,
+                    new String(output.toByteArray(), StandardCharsets.UTF_8));
+
+            Path binary = Files.createTempFile("matrix", ".bin");
+            try {
+                BinaryMatrixFile.save(matrix, binary);
+                TypedMatrix loaded = BinaryMatrixFile.loadTyped(binary);
+                assertEquals(types[i], loaded.type());
+                assertArrayEquals(expected, loaded.toArray());
+            } finally {
+                Files.delete(binary);
+            }
+        }
+
+        // Значения за пределами long по-прежнему считаются некорректными
+        try {
+            MatrixParser.parseTyped(new BufferedReader(new StringReader("1 9223372036854775808")));
+            throw new AssertionError("Ожидалась ошибка разбора");
+        } catch (MatrixFormatException e) {
+            assertEquals("Некорректное значение в строке 1, столбце 2", e.getMessage());
+        }
+
+        // Большая матрица из небольших значений занимает по байту на элемент
+        TypedMatrix large = TypedMatrix.of(IntMatrix.of(new int[300][200]));
+        assertEquals(ElementType.BYTE, large.type());
+        assertEquals(200, large.transpose().rows());
+    }
+
+    @Test
+    public void testOffHeapMatrix() throws IOException {
+        if (ModuleLayer.boot().findModule("jdk.incubator.foreign").isEmpty()) {
+            // Foreign Memory API не подключен при запуске
+            return;
+        }
+        int[][] source = randomMatrix(97, 131);
+        Path text = Files.createTempFile("matrix", ".txt");
+        Path binary = Files.createTempFile("matrix", ".bin");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (MatrixWriter writer = new MatrixWriter(bytes, StandardCharsets.UTF_8, true)) {
+                writer.write(source);
+            }
+            Files.write(text, bytes.toByteArray());
+
+            try (OffHeapMatrix matrix = OffHeapMatrix.parse(text);
+                 OffHeapMatrix transposed = App.transposeMatrix(matrix)) {
+                assertArrayEquals(source, matrix.toArray());
+                assertArrayEquals(App.transposeMatrixReference(source), transposed.toArray());
+
+                ByteArrayOutputStream printed = new ByteArrayOutputStream();
+                try (MatrixWriter writer = new MatrixWriter(printed, StandardCharsets.UTF_8, true)) {
+                    writer.write(matrix);
+                }
+                assertArrayEquals(bytes.toByteArray(), printed.toByteArray());
+
+                transposed.save(binary);
+            }
+            try (OffHeapMatrix loaded = OffHeapMatrix.load(binary)) {
+                assertArrayEquals(App.transposeMatrixReference(source), loaded.toArray());
+            }
+            assertArrayEquals(App.transposeMatrixReference(source), BinaryMatrixFile.load(binary).toArray());
+
+            assertEquals("Некорректное значение в строке 2, столбце 2",
+                    assertThrows(MatrixFormatException.class,
+                            () -> OffHeapMatrix.parse(new BufferedReader(new StringReader("1 2\n3 x")))).getMessage());
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Test
+    public void testBatchTranspose() throws IOException {
+        Path input = Files.createTempDirectory("batch");
+        Path output = input.resolve("out");
+        String[] names = {"a.txt", "b.txt", "c.txt", "d.txt", "e.dat"};
+        String[] texts = {"1 2 3\n4 5 6", "", "1 2\n3", "1 2\nx 4", "7"};
+        try {
+            for (int i = 0; i < names.length; i++) {
+                Files.write(input.resolve(names[i]), texts[i].getBytes(StandardCharsets.UTF_8));
+            }
+
+            List<Path> files = BatchTranspose.resolve(input.resolve("*.txt").toString());
+            assertEquals(4, files.size());
+            BatchTranspose.Summary summary = new BatchTranspose(output, 2).run(files);
+
+            String[] expected = {
+                    "a.txt: OK",
+                    "b.txt: Файл со значениями исходной матрицы пустой",
+                    "c.txt: Некорректное количество элементов в строке 2",
+                    "d.txt: Некорректное значение в строке 2, столбце 1"
+            };
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], summary.results().get(i).toString());
+            }
+            assertEquals(1, summary.succeeded());
+            assertEquals("[[1, 4], [2, 5], [3, 6]]",
+                    Arrays.deepToString(MatrixParser.parse(output.resolve("a.txt")).toArray()));
+            assertTrue(Files.readString(output.resolve(BatchTranspose.SUMMARY_FILE)).contains("Файлов: 4, успешно: 1"));
+            assertEquals(5, BatchTranspose.resolve(input.toString()).size());
+        } finally {
+            try (Stream<Path> paths = Files.walk(input)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testMatrixServer() throws Exception {
+        int[][] large = new int[300][200];
+        Random random = new Random(16);
+        for (int[] row : large) {
+            for (int col = 0; col < row.length; col++) {
+                row[col] = random.nextInt();
+            }
+        }
+        ByteArrayOutputStream largeText = new ByteArrayOutputStream();
+        try (MatrixWriter writer = new MatrixWriter(largeText, StandardCharsets.UTF_8, false)) {
+            writer.write(large);
+        }
+
+        Thread thread;
+        try (MatrixServer server = new MatrixServer(MatrixServer.address("0"))) {
+            thread = new Thread(() -> {
+                try {
+                    server.serve();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            thread.start();
+
+            // Несколько запросов, в том числе ошибочный, по одному соединению
+            try (MatrixClient client = new MatrixClient(server.getAddress())) {
+                for (int i = 0; i < 2; i++) {
+                    assertEquals(expectedServerOutput(large), client.transpose(largeText.toByteArray()));
+                    assertFalse(client.isError());
+                    assertEquals("Некорректное значение в строке 2, столбце 1" + System.lineSeparator(),
+                            client.transpose("1 2\nx 4".getBytes(StandardCharsets.UTF_8)));
+                    assertTrue(client.isError());
+                    assertEquals(expectedServerOutput(new int[][]{{1, 2, 3}}),
+                            client.transpose("1 2 3".getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+            // Буферы закрытого соединения достаются следующему
+            try (MatrixClient client = new MatrixClient(server.getAddress())) {
+                assertEquals(expectedServerOutput(new int[][]{{5}, {6}}),
+                        client.transpose("5\n6\n".getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        // Закрытый сервер завершает цикл обслуживания
+        thread.join();
+    }
+
+    // Вывод App для матрицы, который должен вернуть сервис транспонирования
+    private String expectedServerOutput(int[][] matrix) throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (MatrixWriter writer = new MatrixWriter(expected, StandardCharsets.UTF_8, false)) {
+            writer.writeLine("Исходная матрица:");
+            writer.write(matrix);
+            writer.writeLine("Транспонированная матрица:");
+            writer.write(App.transposeMatrixReference(matrix));
+        }
+        return expected.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testMatrixMultiplyMatchesReference() {
+        Random random = new Random(17);
+        int[][] shapes = {{1, 1, 1}, {3, 5, 2}, {37, 300, 29}, {130, 260, 70}};
+        try (ParallelMatrixEngine engine = new ParallelMatrixEngine(2)) {
+            for (int[] shape : shapes) {
+                IntMatrix a = randomMatrix(random, shape[0], shape[1]);
+                IntMatrix b = randomMatrix(random, shape[1], shape[2]);
+                int[][] expected = MatrixMultiply.multiplyReference(a, b).toArray();
+                assertArrayEquals(expected, MatrixMultiply.multiply(a, b).toArray());
+                assertArrayEquals(expected, engine.multiply(a, b).toArray());
+                // Транспонированные представления в качестве сомножителей
+                assertArrayEquals(expected, MatrixMultiply.multiply(a.transpose().copy().transpose(),
+                        b.transpose().copy().transpose()).toArray());
+            }
+        }
+        assertEquals("Количество столбцов первой матрицы (3) не совпадает с количеством строк второй (2)",
+                assertThrows(IllegalArgumentException.class,
+                        () -> MatrixMultiply.multiply(new IntMatrix(2, 3), new IntMatrix(2, 3))).getMessage());
+    }
+
+    // Создает матрицу заданного размера со случайными элементами
+    private static IntMatrix randomMatrix(Random random, int rows, int cols) {
+        IntMatrix matrix = new IntMatrix(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                matrix.set(row, col, random.nextInt());
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    public void testStageStatsRecordsJfrEvents() throws IOException {
+        Path dump = Files.createTempFile("stages", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ru.spbstu.telematics.java.MatrixStage");
+            recording.start();
+
+            StageStats stats = new StageStats();
+            StageStats.Stage parsing = stats.begin(StageStats.PARSE);
+            IntMatrix matrix = MatrixParser.parse(new BufferedReader(new StringReader("1 2 3\n4 5 6")));
+            parsing.end(11, 6);
+            StageStats.Stage transposing = stats.begin(StageStats.COMPUTE);
+            App.transposeMatrix(matrix).copy();
+            transposing.end(6 * Integer.BYTES, 6);
+
+            recording.stop();
+            recording.dump(dump);
+
+            assertEquals(2, stats.stages().size());
+            assertEquals(StageStats.PARSE, stats.stages().get(0).name());
+            assertEquals(6, stats.stages().get(1).elements());
+            assertTrue(stats.format().contains(StageStats.COMPUTE));
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertEquals(2, events.size());
+            assertEquals(StageStats.PARSE, events.get(0).getString("stage"));
+            assertEquals(11, events.get(0).getLong("bytes"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    // Разбирает текст параллельным движком и возвращает матрицу или сообщение об ошибке
+    private String parse(String text, ParallelMatrixEngine engine) throws IOException {
+        Path file = Files.createTempFile("matrix", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            return Arrays.deepToString(engine.parse(file).toArray());
+        } catch (MatrixFormatException e) {
+            return e.getMessage();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Разбирает текст побайтовым разборщиком и возвращает матрицу или сообщение об ошибке
+    private String parse(String text) throws IOException {
+        Path file = Files.createTempFile("matrix", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            return Arrays.deepToString(MatrixParser.parse(file).toArray());
+        } catch (MatrixFormatException e) {
+            return e.getMessage();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Разбирает текст однопроходным построчным разборщиком
+    private String parseLines(String text) throws IOException {
+        try {
+            return Arrays.deepToString(MatrixParser.parse(new BufferedReader(new StringReader(text))).toArray());
+        } catch (MatrixFormatException e) {
+            return e.getMessage();
+        }
+    }
+
+    // Разбирает текст эталонным методом и возвращает матрицу или сообщение об ошибке
+    private String parseReference(String text) throws IOException {
+        try {
+            return Arrays.deepToString(App.readMatrixReference(new BufferedReader(new StringReader(text))));
+        } catch (MatrixFormatException e) {
+            return e.getMessage();
+        }
+    }
+
+    private int[][] randomMatrix(int rows, int cols) {
+        Random random = new Random(rows * 31L + cols);
+        int[][] matrix = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                matrix[row][col] = random.nextInt();
+            }
+        }
+        return matrix;
+    }
+
+    // Случайная матрица, в которой ненулевые элементы встречаются с заданной вероятностью
+    private int[][] sparseMatrix(int rows, int cols, double density) {
+        Random random = new Random(rows * 17L + cols);
+        int[][] matrix = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (random.nextDouble() < density) {
+                    matrix[row][col] = random.nextInt();
+                }
+            }
+        }
+        return matrix;
+    }
+
     private int[][] readMatrixFromFile(String fileName) {
         List<int[]> rows = new ArrayList<>();
         BufferedReader reader = null;
@@ -0,0 +1,262 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Пакетное транспонирование множества файлов за один запуск JVM.
+ * Каждый файл обрабатывается отдельной задачей: на виртуальных потоках,
+ * если они есть в JVM (Java 21 и новее), иначе в пуле по числу процессоров.
+ * Количество одновременно открытых файлов ограничено семафором. Для каждого
+ * файла сообщается успех или та же ошибка, что и при обработке одного файла,
+ * а в выходной каталог записывается сводка с пропускной способностью.
+ */
+public class BatchTranspose {
+
+    /**
+     * Ограничение на количество одновременно открытых файлов по умолчанию.
+     */
+    public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+    /**
+     * Имя файла сводки в выходном каталоге.
+     */
+    public static final String SUMMARY_FILE = "summary.txt";
+
+    private final Path outputDirectory;
+    private final Semaphore openFiles;
+
+    /**
+     * Создает пакетную обработку.
+     *
+     * @param outputDirectory Каталог для транспонированных матриц и сводки.
+     * @param maxOpenFiles    Наибольшее количество одновременно обрабатываемых файлов.
+     */
+    public BatchTranspose(Path outputDirectory, int maxOpenFiles) {
+        this.outputDirectory = outputDirectory;
+        this.openFiles = new Semaphore(maxOpenFiles);
+    }
+
+    /**
+     * Результат обработки одного файла.
+     */
+    public static final class Result {
+        private final Path file;
+        private final String error;
+        private final long elements;
+        private final long bytes;
+
+        Result(Path file, String error, long elements, long bytes) {
+            this.file = file;
+            this.error = error;
+            this.elements = elements;
+            this.bytes = bytes;
+        }
+
+        public Path file() {
+            return file;
+        }
+
+        /**
+         * Возвращает сообщение об ошибке или {@code null}, если файл обработан.
+         */
+        public String error() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Возвращает строку отчета: имя файла и "OK" или сообщение об ошибке.
+         */
+        @Override
+        public String toString() {
+            return file.getFileName() + ": " + (error == null ? "OK" : error);
+        }
+    }
+
+    /**
+     * Итоги пакетной обработки.
+     */
+    public static final class Summary {
+        private final List<Result> results;
+        private final long nanos;
+
+        Summary(List<Result> results, long nanos) {
+            this.results = results;
+            this.nanos = nanos;
+        }
+
+        public List<Result> results() {
+            return results;
+        }
+
+        /**
+         * Возвращает количество успешно обработанных файлов.
+         */
+        public long succeeded() {
+            return results.stream().filter(Result::isSuccess).count();
+        }
+
+        /**
+         * Возвращает текст сводки: отчеты по файлам, итоги и пропускную способность.
+         */
+        public String format() {
+            long elements = 0;
+            long bytes = 0;
+            for (Result result : results) {
+                elements += result.elements;
+                bytes += result.bytes;
+            }
+            double seconds = Math.max(nanos, 1) / 1e9;
+
+            StringBuilder text = new StringBuilder();
+            for (Result result : results) {
+                text.append(result).append(System.lineSeparator());
+            }
+            text.append(String.format(Locale.ROOT, "Файлов: %d, успешно: %d, с ошибками: %d%n",
+                    results.size(), succeeded(), results.size() - succeeded()));
+            text.append(String.format(Locale.ROOT, "Время: %.3f с%n", seconds));
+            text.append(String.format(Locale.ROOT, "Файлов в секунду: %.1f%n", results.size() / seconds));
+            text.append(String.format(Locale.ROOT, "Элементов в секунду: %.0f%n", elements / seconds));
+            text.append(String.format(Locale.ROOT, "МБ в секунду: %.2f%n", bytes / seconds / (1 << 20)));
+            return text.toString();
+        }
+    }
+
+    /**
+     * Находит файлы для обработки. Каталог означает все обычные файлы в нем,
+     * иначе аргумент считается шаблоном glob для имен файлов, например
+     * {@code data/*.txt}.
+     *
+     * @param directoryOrGlob Каталог или шаблон.
+     * @return Файлы, упорядоченные по имени.
+     * @throws IOException Если каталог не удалось прочитать.
+     */
+    public static List<Path> resolve(String directoryOrGlob) throws IOException {
+        Path path = Paths.get(directoryOrGlob);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            matcher = file -> true;
+        } else {
+            directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+            matcher = path.getFileSystem().getPathMatcher("glob:" + path.getFileName());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(file.getFileName()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Транспонирует все файлы и записывает результаты в выходной каталог под
+     * теми же именами, а сводку - в файл {@value #SUMMARY_FILE}.
+     *
+     * @param files Файлы с матрицами.
+     * @return Итоги обработки в порядке исходного списка.
+     * @throws IOException              Если не удалось создать каталог или записать сводку.
+     * @throws IllegalArgumentException Если результаты перезаписали бы исходные файлы.
+     */
+    public Summary run(List<Path> files) throws IOException {
+        Path target = outputDirectory.toAbsolutePath().normalize();
+        for (Path file : files) {
+            if (target.equals(file.toAbsolutePath().normalize().getParent())) {
+                throw new IllegalArgumentException("Выходной каталог совпадает с каталогом исходных файлов: "
+                        + outputDirectory);
+            }
+        }
+        Files.createDirectories(outputDirectory);
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>(files.size());
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<Result>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> process(file)));
+            }
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Пакетная обработка прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Summary summary = new Summary(results, System.nanoTime() - start);
+        Files.write(outputDirectory.resolve(SUMMARY_FILE), summary.format().getBytes(StandardCharsets.UTF_8));
+        return summary;
+    }
+
+    private Result process(Path file) throws InterruptedException {
+        openFiles.acquire();
+        try {
+            long bytes = Files.size(file);
+            IntMatrix transposedMatrix = App.transposeMatrix(MatrixParser.parse(file));
+            try (MatrixWriter writer = new MatrixWriter(
+                    Files.newOutputStream(outputDirectory.resolve(file.getFileName())))) {
+                writer.write(transposedMatrix);
+            }
+            return new Result(file, null, (long) transposedMatrix.rows() * transposedMatrix.cols(), bytes);
+        } catch (MatrixFormatException e) {
+            return new Result(file, e.getMessage(), 0, 0);
+        } catch (IOException | UncheckedIOException e) {
+            return new Result(file, "Ошибка чтения или записи файла: " + e.getMessage(), 0, 0);
+        } catch (RuntimeException e) {
+            // Сбой на одном файле не должен прерывать обработку остальных
+            return new Result(file, "Ошибка обработки файла: " + e, 0, 0);
+        } finally {
+            openFiles.release();
+        }
+    }
+
+    /**
+     * Создает исполнитель на виртуальных потоках, если они поддерживаются JVM,
+     * иначе пул потоков по числу процессоров.
+     */
+    static ExecutorService newExecutor() {
+        return newExecutor(() -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Создает исполнитель на виртуальных потоках, если они поддерживаются JVM,
+     * иначе заданный. Метод ищется через отражение, чтобы код собирался
+     * и работал и на Java 17.
+     *
+     * @param fallback Исполнитель для JVM без виртуальных потоков.
+     * @return Исполнитель задач.
+     */
+    static ExecutorService newExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return fallback.get();
+        }
+    }
+}
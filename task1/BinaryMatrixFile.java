@@ -0,0 +1,394 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Двоичный формат матрицы: короткий заголовок с размерами и типом элементов,
+ * за которым следуют значения подряд по строкам в порядке little-endian.
+ * Файлы читаются и пишутся через отображение в память, поэтому повторная
+ * обработка тех же данных не требует разбора десятичного текста.
+ *
+ * <pre>
+ * смещение  размер  содержимое
+ *  0        4       сигнатура "MTXB"
+ *  4        1       версия формата (1)
+ *  5        1       размер элемента в байтах (1, 2, 4 или 8)
+ *  6        2       зарезервировано
+ *  8        8       количество строк
+ * 16        8       количество столбцов
+ * 24        ...     элементы
+ * </pre>
+ */
+public class BinaryMatrixFile {
+
+    /**
+     * Размер заголовка в байтах; элементы начинаются сразу после него.
+     */
+    public static final int HEADER_SIZE = 24;
+
+    /**
+     * Сигнатура "MTXB" в порядке little-endian.
+     */
+    private static final int MAGIC = 'M' | 'T' << 8 | 'X' << 16 | 'B' << 24;
+
+    private static final byte VERSION = 1;
+
+    /**
+     * Размер элемента int в байтах, записываемый в заголовок.
+     */
+    private static final byte INT_SIZE = Integer.BYTES;
+
+    /**
+     * Размер буфера записи при преобразовании текстового файла.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryMatrixFile() {
+    }
+
+    /**
+     * Заголовок двоичного файла с матрицей.
+     */
+    public static final class Header {
+        private final long rows;
+        private final long cols;
+        private final int elementSize;
+
+        Header(long rows, long cols, int elementSize) {
+            this.rows = rows;
+            this.cols = cols;
+            this.elementSize = elementSize;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public long cols() {
+            return cols;
+        }
+
+        public int elementSize() {
+            return elementSize;
+        }
+
+        /**
+         * Возвращает количество элементов матрицы.
+         */
+        public long elements() {
+            return rows * cols;
+        }
+    }
+
+    /**
+     * Проверяет, начинается ли файл с сигнатуры двоичного формата.
+     *
+     * @param file Путь к файлу.
+     * @return {@code true}, если файл записан в двоичном формате.
+     * @throws IOException Если файл не удалось прочитать.
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Читаем, пока не получим четыре байта или не дойдем до конца файла
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Читает заголовок двоичного файла.
+     *
+     * @param channel Канал, открытый для чтения.
+     * @return Заголовок файла.
+     * @throws IOException Если файл не в двоичном формате или поврежден.
+     */
+    public static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Заголовок читается с начала файла независимо от позиции канала
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Файл не является двоичным файлом матрицы");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного формата: " + header.get(4));
+        }
+        Header result = new Header(header.getLong(8), header.getLong(16), header.get(5));
+        if (result.rows() < 0 || result.cols() < 0) {
+            throw new IOException("Двоичный файл матрицы поврежден");
+        }
+        long expected;
+        try {
+            expected = Math.addExact(HEADER_SIZE, Math.multiplyExact(
+                    Math.multiplyExact(result.rows(), result.cols()), (long) result.elementSize()));
+        } catch (ArithmeticException e) {
+            // Размеры из поврежденного заголовка могут не поместиться в long
+            throw new IOException("Двоичный файл матрицы поврежден", e);
+        }
+        if (channel.size() < expected) {
+            throw new IOException("Двоичный файл матрицы поврежден");
+        }
+        return result;
+    }
+
+    /**
+     * Загружает матрицу из двоичного файла, отображая его в память.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица, хранящаяся построчно в плоском массиве.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static IntMatrix load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            checkIntElements(header);
+            if (header.elements() > Integer.MAX_VALUE - 8) {
+                throw new IOException("Матрица слишком велика для массива int[]");
+            }
+            int[] data = new int[(int) header.elements()];
+            mapInts(channel, FileChannel.MapMode.READ_ONLY, data.length).get(data);
+            return IntMatrix.wrap(data, (int) header.rows(), (int) header.cols());
+        }
+    }
+
+    /**
+     * Сохраняет матрицу в двоичный файл, отображая его в память.
+     *
+     * @param matrix Матрица.
+     * @param file   Путь к файлу; существующий файл перезаписывается.
+     * @throws IOException Если файл не удалось записать.
+     */
+    public static void save(IntMatrix matrix, Path file) throws IOException {
+        IntMatrix rowMajor = matrix.isRowMajor() ? matrix : matrix.copy();
+        try (FileChannel channel = create(file)) {
+            writeHeader(channel, rowMajor.rows(), rowMajor.cols());
+            mapInts(channel, FileChannel.MapMode.READ_WRITE, rowMajor.rows() * rowMajor.cols())
+                    .put(rowMajor.data(), 0, rowMajor.rows() * rowMajor.cols());
+        }
+    }
+
+    /**
+     * Загружает матрицу с элементами любого целого типа из двоичного файла.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица того типа элементов, который записан в заголовке.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static TypedMatrix loadTyped(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            ElementType type = elementType(header);
+            if (header.elements() > Integer.MAX_VALUE - 8) {
+                throw new IOException("Матрица слишком велика для одного массива");
+            }
+            int elements = (int) header.elements();
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    (long) elements * type.bytes()).order(ByteOrder.LITTLE_ENDIAN);
+            Object data;
+            switch (type) {
+                case BYTE:
+                    data = new byte[elements];
+                    mapped.get((byte[]) data);
+                    break;
+                case SHORT:
+                    data = new short[elements];
+                    mapped.asShortBuffer().get((short[]) data);
+                    break;
+                case INT:
+                    data = new int[elements];
+                    mapped.asIntBuffer().get((int[]) data);
+                    break;
+                default:
+                    data = new long[elements];
+                    mapped.asLongBuffer().get((long[]) data);
+                    break;
+            }
+            return new TypedMatrix(type, data, (int) header.rows(), (int) header.cols());
+        }
+    }
+
+    /**
+     * Сохраняет матрицу в двоичный файл; в заголовок записывается размер
+     * ее элементов.
+     *
+     * @param matrix Матрица.
+     * @param file   Путь к файлу; существующий файл перезаписывается.
+     * @throws IOException Если файл не удалось записать.
+     */
+    public static void save(TypedMatrix matrix, Path file) throws IOException {
+        ElementType type = matrix.type();
+        try (FileChannel channel = create(file)) {
+            writeHeader(channel, matrix.rows(), matrix.cols(), type.bytes());
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE,
+                    (long) matrix.rows() * matrix.cols() * type.bytes()).order(ByteOrder.LITTLE_ENDIAN);
+            switch (type) {
+                case BYTE:
+                    mapped.put((byte[]) matrix.data());
+                    break;
+                case SHORT:
+                    mapped.asShortBuffer().put((short[]) matrix.data());
+                    break;
+                case INT:
+                    mapped.asIntBuffer().put((int[]) matrix.data());
+                    break;
+                default:
+                    mapped.asLongBuffer().put((long[]) matrix.data());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Преобразует текстовый файл с матрицей в двоичный. Текст разбирается
+     * потоково, поэтому матрица целиком в памяти не хранится.
+     *
+     * @param textFile   Текстовый файл с матрицей.
+     * @param binaryFile Двоичный файл; существующий файл перезаписывается.
+     * @throws IOException           Если файлы не удалось прочитать или записать.
+     * @throws MatrixFormatException Если текстовый файл содержит ошибку; двоичный файл при этом удаляется.
+     */
+    public static void convert(Path textFile, Path binaryFile) throws IOException {
+        boolean completed = false;
+        try (FileChannel input = FileChannel.open(textFile, StandardOpenOption.READ);
+             FileChannel output = create(binaryFile)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            output.position(HEADER_SIZE);
+
+            RowScanner scanner = new RowScanner((int value) -> {
+                if (!out.hasRemaining()) {
+                    drain(out, output);
+                }
+                out.putInt(value);
+            });
+            ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+            while (input.read(in) >= 0) {
+                in.flip();
+                scanner.feed(in);
+                in.clear();
+            }
+            scanner.finish();
+            drain(out, output);
+
+            writeHeader(output, scanner.rows(), scanner.cols());
+            completed = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(binaryFile);
+            }
+        }
+    }
+
+    /**
+     * Транспонирует матрицу из одного двоичного файла в другой. Оба файла
+     * отображаются в память, и блоки копируются прямо между отображениями.
+     *
+     * @param source Двоичный файл с исходной матрицей.
+     * @param target Двоичный файл для результата; существующий файл перезаписывается.
+     * @throws IOException Если файлы не удалось прочитать или записать.
+     */
+    public static void transpose(Path source, Path target) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = create(target)) {
+            Header header = readHeader(input);
+            checkIntElements(header);
+            if (header.elements() > (Integer.MAX_VALUE - HEADER_SIZE) / Integer.BYTES) {
+                throw new IOException("Матрица больше 2 ГБ не помещается в одно отображение");
+            }
+            int rows = (int) header.rows();
+            int cols = (int) header.cols();
+            writeHeader(output, cols, rows);
+
+            IntBuffer from = mapInts(input, FileChannel.MapMode.READ_ONLY, rows * cols);
+            IntBuffer to = mapInts(output, FileChannel.MapMode.READ_WRITE, rows * cols);
+            int tileSize = BlockedTranspose.tileSize();
+            for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+                int rowEnd = Math.min(rowBlock + tileSize, rows);
+                for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                    int colEnd = Math.min(colBlock + tileSize, cols);
+                    for (int col = colBlock; col < colEnd; col++) {
+                        int targetIndex = col * rows;
+                        for (int row = rowBlock; row < rowEnd; row++) {
+                            to.put(targetIndex + row, from.get(row * cols + col));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Записывает заголовок в начало файла.
+     */
+    static void writeHeader(FileChannel channel, long rows, long cols) throws IOException {
+        writeHeader(channel, rows, cols, INT_SIZE);
+    }
+
+    /**
+     * Записывает в начало файла заголовок с заданным размером элемента.
+     */
+    static void writeHeader(FileChannel channel, long rows, long cols, int elementSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).put(VERSION).put((byte) elementSize).putShort((short) 0).putLong(rows).putLong(cols);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Открывает файл для чтения и записи, обрезая его, если он существует.
+     */
+    static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Отображает в память область элементов файла и возвращает ее как буфер int.
+     */
+    private static IntBuffer mapInts(FileChannel channel, FileChannel.MapMode mode, int elements)
+            throws IOException {
+        MappedByteBuffer mapped = channel.map(mode, HEADER_SIZE, (long) elements * Integer.BYTES);
+        return mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static void checkIntElements(Header header) throws IOException {
+        if (header.elementSize() != INT_SIZE) {
+            throw new IOException("Неподдерживаемый размер элемента: " + header.elementSize());
+        }
+    }
+
+    private static ElementType elementType(Header header) throws IOException {
+        try {
+            return ElementType.ofBytes(header.elementSize());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,310 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Блочное (tiled) транспонирование матриц.
+ * Матрица обрабатывается квадратными блоками размера tileSize x tileSize,
+ * так что и читаемые строки исходной матрицы, и записываемые строки
+ * результата целиком помещаются в кэш процессора.
+ */
+public class BlockedTranspose {
+
+    /**
+     * Размер блока по умолчанию: два блока 64x64 из int занимают 32 КБ,
+     * что соответствует типичному размеру кэша L1 данных.
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * Системное свойство для задания размера блока. Допустимо число
+     * или значение "auto" для автоматического подбора.
+     */
+    public static final String TILE_SIZE_PROPERTY = "matrix.tileSize";
+
+    /**
+     * Системное свойство, значение "true" которого включает векторное
+     * микроядро {@link VectorTranspose}. По умолчанию используется скалярное
+     * блочное ядро: при коротком запуске векторное ядро не успевает
+     * скомпилироваться JIT и работает в интерпретаторе во много раз медленнее,
+     * выделяя память под каждый вектор, а после прогрева выигрыша не дает.
+     */
+    public static final String VECTOR_PROPERTY = "matrix.vector";
+
+    /**
+     * Используется ли векторное микроядро: оно включено свойством
+     * {@value #VECTOR_PROPERTY}, модуль {@code jdk.incubator.vector} подключен
+     * при запуске (--add-modules) и процессор поддерживает векторы из 8 int.
+     */
+    private static final boolean VECTORIZED = vectorAvailable();
+
+    /**
+     * Размеры блоков, среди которых выбирается лучший при автоподборе.
+     */
+    private static final int[] TILE_CANDIDATES = {16, 32, 64, 128, 256};
+
+    /**
+     * Размер тестовой матрицы, на которой выполняется автоподбор.
+     */
+    private static final int TUNING_SIZE = 1024;
+
+    /**
+     * Размер блока, выбранный при первом обращении к {@link #tileSize()}.
+     */
+    private static volatile int tileSize;
+
+    private BlockedTranspose() {
+    }
+
+    /**
+     * Возвращает размер блока, используемый по умолчанию. Значение берется
+     * из системного свойства {@value #TILE_SIZE_PROPERTY}; если свойство равно
+     * "auto", размер блока подбирается замером на тестовой матрице.
+     *
+     * @return Размер блока.
+     */
+    public static int tileSize() {
+        int size = tileSize;
+        if (size == 0) {
+            String property = System.getProperty(TILE_SIZE_PROPERTY);
+            if (property == null) {
+                size = DEFAULT_TILE_SIZE;
+            } else if (property.equalsIgnoreCase("auto")) {
+                size = tuneTileSize();
+            } else {
+                size = Integer.parseInt(property.trim());
+                if (size <= 0) {
+                    throw new IllegalArgumentException("Размер блока должен быть положительным: " + size);
+                }
+            }
+            tileSize = size;
+        }
+        return size;
+    }
+
+    /**
+     * Проверяет, транспонируются ли блоки матриц int векторным микроядром.
+     *
+     * @return {@code true}, если используется Vector API.
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Подбирает размер блока, при котором транспонирование тестовой матрицы
+     * выполняется быстрее всего на текущей машине.
+     *
+     * @return Лучший из размеров блока {@link #TILE_CANDIDATES}.
+     */
+    public static int tuneTileSize() {
+        int[][] sample = new int[TUNING_SIZE][TUNING_SIZE];
+        int[][] target = new int[TUNING_SIZE][TUNING_SIZE];
+        int best = DEFAULT_TILE_SIZE;
+        long bestTime = Long.MAX_VALUE;
+
+        for (int candidate : TILE_CANDIDATES) {
+            long time = Long.MAX_VALUE;
+            // Несколько повторов, чтобы отбросить прогрев JIT и случайные помехи
+            for (int attempt = 0; attempt < 5; attempt++) {
+                long start = System.nanoTime();
+                transpose(sample, target, candidate);
+                time = Math.min(time, System.nanoTime() - start);
+            }
+            if (time < bestTime) {
+                bestTime = time;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Транспонирует матрицу блоками указанного размера.
+     *
+     * @param matrix   Исходная матрица.
+     * @param tileSize Размер блока.
+     * @return Новая транспонированная матрица.
+     */
+    public static int[][] transpose(int[][] matrix, int tileSize) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        int[][] transposedMatrix = new int[cols][rows];
+        transpose(matrix, transposedMatrix, tileSize);
+        return transposedMatrix;
+    }
+
+    /**
+     * Записывает транспонированную матрицу source в уже выделенную матрицу target.
+     *
+     * @param source   Исходная матрица размера rows x cols.
+     * @param target   Матрица-результат размера cols x rows.
+     * @param tileSize Размер блока.
+     */
+    public static void transpose(int[][] source, int[][] target, int tileSize) {
+        int rows = source.length;
+        int cols = source[0].length;
+
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, cols);
+                transposeTile(source, target, rowBlock, rowEnd, colBlock, colEnd);
+            }
+        }
+    }
+
+    /**
+     * Транспонирует матрицу, хранящуюся построчно в плоском массиве.
+     *
+     * @param source   Элементы исходной матрицы rows x cols, записанные по строкам.
+     * @param rows     Количество строк исходной матрицы.
+     * @param cols     Количество столбцов исходной матрицы.
+     * @param target   Массив для результата cols x rows, записываемого по строкам.
+     * @param tileSize Размер блока.
+     */
+    public static void transpose(int[] source, int rows, int cols, int[] target, int tileSize) {
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, cols);
+                transposeTile(source, rows, cols, target, rowBlock, rowEnd, colBlock, colEnd);
+            }
+        }
+    }
+
+    /**
+     * Транспонирует матрицу из байтов, хранящуюся построчно в плоском массиве.
+     *
+     * @param source   Элементы исходной матрицы rows x cols, записанные по строкам.
+     * @param rows     Количество строк исходной матрицы.
+     * @param cols     Количество столбцов исходной матрицы.
+     * @param target   Массив для результата cols x rows, записываемого по строкам.
+     * @param tileSize Размер блока.
+     */
+    public static void transpose(byte[] source, int rows, int cols, byte[] target, int tileSize) {
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, cols);
+                for (int col = colBlock; col < colEnd; col++) {
+                    int targetIndex = col * rows;
+                    for (int row = rowBlock; row < rowEnd; row++) {
+                        target[targetIndex + row] = source[row * cols + col];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Транспонирует матрицу из чисел short, хранящуюся построчно в плоском массиве.
+     *
+     * @param source   Элементы исходной матрицы rows x cols, записанные по строкам.
+     * @param rows     Количество строк исходной матрицы.
+     * @param cols     Количество столбцов исходной матрицы.
+     * @param target   Массив для результата cols x rows, записываемого по строкам.
+     * @param tileSize Размер блока.
+     */
+    public static void transpose(short[] source, int rows, int cols, short[] target, int tileSize) {
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, cols);
+                for (int col = colBlock; col < colEnd; col++) {
+                    int targetIndex = col * rows;
+                    for (int row = rowBlock; row < rowEnd; row++) {
+                        target[targetIndex + row] = source[row * cols + col];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Транспонирует матрицу из чисел long, хранящуюся построчно в плоском массиве.
+     *
+     * @param source   Элементы исходной матрицы rows x cols, записанные по строкам.
+     * @param rows     Количество строк исходной матрицы.
+     * @param cols     Количество столбцов исходной матрицы.
+     * @param target   Массив для результата cols x rows, записываемого по строкам.
+     * @param tileSize Размер блока.
+     */
+    public static void transpose(long[] source, int rows, int cols, long[] target, int tileSize) {
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (int colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, cols);
+                for (int col = colBlock; col < colEnd; col++) {
+                    int targetIndex = col * rows;
+                    for (int row = rowBlock; row < rowEnd; row++) {
+                        target[targetIndex + row] = source[row * cols + col];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Транспонирует один блок [rowStart, rowEnd) x [colStart, colEnd) плоской матрицы,
+     * по возможности векторным микроядром.
+     */
+    static void transposeTile(int[] source, int rows, int cols, int[] target,
+                              int rowStart, int rowEnd, int colStart, int colEnd) {
+        if (VECTORIZED) {
+            VectorTranspose.transposeTile(source, rows, cols, target, rowStart, rowEnd, colStart, colEnd);
+        } else {
+            transposeTileScalar(source, rows, cols, target, rowStart, rowEnd, colStart, colEnd);
+        }
+    }
+
+    /**
+     * Транспонирует один блок плоской матрицы поэлементно.
+     */
+    static void transposeTileScalar(int[] source, int rows, int cols, int[] target,
+                                    int rowStart, int rowEnd, int colStart, int colEnd) {
+        for (int col = colStart; col < colEnd; col++) {
+            int targetIndex = col * rows;
+            for (int row = rowStart; row < rowEnd; row++) {
+                target[targetIndex + row] = source[row * cols + col];
+            }
+        }
+    }
+
+    /**
+     * Транспонирует один блок [rowStart, rowEnd) x [colStart, colEnd),
+     * по возможности векторным микроядром.
+     */
+    static void transposeTile(int[][] source, int[][] target,
+                              int rowStart, int rowEnd, int colStart, int colEnd) {
+        if (VECTORIZED) {
+            VectorTranspose.transposeTile(source, target, rowStart, rowEnd, colStart, colEnd);
+        } else {
+            transposeTileScalar(source, target, rowStart, rowEnd, colStart, colEnd);
+        }
+    }
+
+    /**
+     * Транспонирует один блок поэлементно.
+     */
+    static void transposeTileScalar(int[][] source, int[][] target,
+                                    int rowStart, int rowEnd, int colStart, int colEnd) {
+        for (int col = colStart; col < colEnd; col++) {
+            int[] targetRow = target[col];
+            for (int row = rowStart; row < rowEnd; row++) {
+                targetRow[row] = source[row][col];
+            }
+        }
+    }
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.getBoolean(VECTOR_PROPERTY)
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorTranspose.isSupported();
+        } catch (LinkageError e) {
+            // Модуль найден, но классы Vector API недоступны этому коду
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Тип элементов матрицы. Размер элемента в байтах совпадает с кодом,
+ * который записывается в заголовок {@link BinaryMatrixFile}.
+ */
+public enum ElementType {
+    BYTE(Byte.BYTES, Byte.MIN_VALUE, Byte.MAX_VALUE),
+    SHORT(Short.BYTES, Short.MIN_VALUE, Short.MAX_VALUE),
+    INT(Integer.BYTES, Integer.MIN_VALUE, Integer.MAX_VALUE),
+    LONG(Long.BYTES, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final int bytes;
+    private final long minValue;
+    private final long maxValue;
+
+    ElementType(int bytes, long minValue, long maxValue) {
+        this.bytes = bytes;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Возвращает размер элемента в байтах.
+     *
+     * @return Размер элемента.
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /**
+     * Проверяет, помещаются ли в этот тип все значения из диапазона [min, max].
+     *
+     * @param min Наименьшее значение.
+     * @param max Наибольшее значение.
+     * @return {@code true}, если диапазон помещается в тип.
+     */
+    public boolean fits(long min, long max) {
+        return min >= minValue && max <= maxValue;
+    }
+
+    /**
+     * Выбирает самый узкий тип, в который помещаются значения из диапазона [min, max].
+     *
+     * @param min Наименьшее значение.
+     * @param max Наибольшее значение.
+     * @return Самый узкий подходящий тип.
+     */
+    public static ElementType narrowest(long min, long max) {
+        for (ElementType type : values()) {
+            if (type.fits(min, max)) {
+                return type;
+            }
+        }
+        return LONG;
+    }
+
+    /**
+     * Возвращает тип по размеру элемента в байтах.
+     *
+     * @param bytes Размер элемента.
+     * @return Тип элементов.
+     * @throws IllegalArgumentException Если такого размера нет.
+     */
+    public static ElementType ofBytes(int bytes) {
+        for (ElementType type : values()) {
+            if (type.bytes == bytes) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый размер элемента: " + bytes);
+    }
+}
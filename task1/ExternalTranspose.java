@@ -0,0 +1,206 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Транспонирование матриц, которые не помещаются в память (out-of-core).
+ * Исходная матрица в двоичном формате {@link BinaryMatrixFile} читается блоками,
+ * каждый блок транспонируется в памяти и записывается на свое место в выходном
+ * файле. Объем используемой памяти ограничен заданным бюджетом и не зависит
+ * от размеров матрицы.
+ */
+public class ExternalTranspose {
+
+    /**
+     * Бюджет памяти по умолчанию в байтах.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /**
+     * Количество буферов размером с блок: прочитанный блок и транспонированный,
+     * каждый в виде массива int и байтового буфера.
+     */
+    private static final int BUFFERS_PER_TILE = 4;
+
+    private ExternalTranspose() {
+    }
+
+    /**
+     * Транспонирует матрицу из текстового или двоичного файла в двоичный файл.
+     * Текстовый файл сначала потоково преобразуется во временный двоичный.
+     *
+     * @param source       Файл с исходной матрицей.
+     * @param target       Двоичный файл для результата; существующий файл перезаписывается.
+     * @param memoryBudget Наибольший объем памяти под буферы в байтах.
+     * @throws IOException           Если файлы не удалось прочитать или записать.
+     * @throws MatrixFormatException Если текстовый файл содержит ошибку.
+     */
+    public static void transpose(Path source, Path target, long memoryBudget) throws IOException {
+        if (BinaryMatrixFile.isBinary(source)) {
+            transposeBinary(source, target, memoryBudget);
+            return;
+        }
+        Path binary = temporaryFile(target);
+        try {
+            BinaryMatrixFile.convert(source, binary);
+            transposeBinary(binary, target, memoryBudget);
+        } finally {
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    /**
+     * Транспонирует матрицу из одного двоичного файла в другой блоками,
+     * размер которых определяется бюджетом памяти.
+     *
+     * @param source       Двоичный файл с исходной матрицей.
+     * @param target       Двоичный файл для результата; существующий файл перезаписывается.
+     * @param memoryBudget Наибольший объем памяти под буферы в байтах.
+     * @throws IOException Если файлы не удалось прочитать или записать.
+     */
+    public static void transposeBinary(Path source, Path target, long memoryBudget) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = BinaryMatrixFile.create(target)) {
+            BinaryMatrixFile.Header header = BinaryMatrixFile.readHeader(input);
+            if (header.elementSize() != Integer.BYTES) {
+                throw new IOException("Неподдерживаемый размер элемента: " + header.elementSize());
+            }
+            long rows = header.rows();
+            long cols = header.cols();
+            BinaryMatrixFile.writeHeader(output, cols, rows);
+            if (rows == 0 || cols == 0) {
+                return;
+            }
+
+            // Блок делается по возможности квадратным, чтобы и читаемые,
+            // и записываемые отрезки строк были достаточно длинными. У узкой
+            // или низкой матрицы блок становится полосой во всю ширину или
+            // высоту, и тогда его строки (или столбцы) лежат в файле подряд
+            int tileElements = (int) Math.max(1, Math.min(memoryBudget / BUFFERS_PER_TILE / Integer.BYTES,
+                    Integer.MAX_VALUE / Integer.BYTES));
+            int side = (int) Math.sqrt(tileElements);
+            int tileRows = (int) Math.min(rows, Math.max(side, 1));
+            int tileCols = (int) Math.min(cols, tileElements / tileRows);
+            if (tileCols == cols) {
+                tileRows = (int) Math.min(rows, Math.max(1, tileElements / tileCols));
+            }
+
+            ByteBuffer inBytes = ByteBuffer.allocate(tileRows * tileCols * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer outBytes = ByteBuffer.allocate(tileRows * tileCols * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int[] tile = new int[tileRows * tileCols];
+            int[] transposedTile = new int[tileRows * tileCols];
+
+            for (long rowStart = 0; rowStart < rows; rowStart += tileRows) {
+                int height = (int) Math.min(tileRows, rows - rowStart);
+                for (long colStart = 0; colStart < cols; colStart += tileCols) {
+                    int width = (int) Math.min(tileCols, cols - colStart);
+
+                    // Чтение блока: height отрезков строк по width элементов,
+                    // а блок во всю ширину строки - одним отрезком
+                    inBytes.clear();
+                    if (width == cols) {
+                        inBytes.limit(height * width * Integer.BYTES);
+                        readFully(input, inBytes, offset(rowStart, 0, cols));
+                    } else {
+                        for (int row = 0; row < height; row++) {
+                            inBytes.limit((row + 1) * width * Integer.BYTES);
+                            readFully(input, inBytes, offset(rowStart + row, colStart, cols));
+                        }
+                    }
+                    inBytes.flip();
+                    inBytes.asIntBuffer().get(tile, 0, height * width);
+
+                    BlockedTranspose.transpose(tile, height, width, transposedTile, BlockedTranspose.tileSize());
+
+                    // Запись блока: width отрезков строк результата по height элементов,
+                    // а блок во всю высоту матрицы - одним отрезком
+                    outBytes.clear();
+                    IntBuffer outInts = outBytes.asIntBuffer();
+                    outInts.put(transposedTile, 0, height * width);
+                    if (height == rows) {
+                        outBytes.limit(height * width * Integer.BYTES);
+                        writeFully(output, outBytes, offset(colStart, 0, rows));
+                    } else {
+                        for (int col = 0; col < width; col++) {
+                            outBytes.limit((col + 1) * height * Integer.BYTES).position(col * height * Integer.BYTES);
+                            writeFully(output, outBytes, offset(colStart + col, rowStart, rows));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Потоково выводит матрицу из двоичного файла в текстовом формате,
+     * не загружая ее в память целиком.
+     *
+     * @param binary Двоичный файл с матрицей.
+     * @param writer Вывод.
+     * @throws IOException Если файл не удалось прочитать или вывод не удался.
+     */
+    public static void writeText(Path binary, MatrixWriter writer) throws IOException {
+        try (FileChannel input = FileChannel.open(binary, StandardOpenOption.READ)) {
+            BinaryMatrixFile.Header header = BinaryMatrixFile.readHeader(input);
+            if (header.rows() == 0 || header.cols() == 0) {
+                writer.writeLine("Матрица пустая");
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            long position = BinaryMatrixFile.HEADER_SIZE;
+            long remaining = header.elements();
+            long col = 0;
+            while (remaining > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining * Integer.BYTES));
+                readFully(input, buffer, position);
+                position += buffer.limit();
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    writer.writeElement(buffer.getInt());
+                    remaining--;
+                    if (++col == header.cols()) {
+                        writer.newLine();
+                        col = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Создает временный файл рядом с указанным, чтобы не зависеть от размера
+     * системного каталога временных файлов.
+     */
+    static Path temporaryFile(Path near) throws IOException {
+        Path directory = near.toAbsolutePath().getParent();
+        return Files.createTempFile(directory, "matrix", ".tmp");
+    }
+
+    private static long offset(long row, long col, long cols) {
+        return BinaryMatrixFile.HEADER_SIZE + (row * cols + col) * Integer.BYTES;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Двоичный файл матрицы поврежден");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
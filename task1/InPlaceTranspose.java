@@ -0,0 +1,124 @@
+package ru.spbstu.telematics.java;
+
+import java.util.BitSet;
+
+/**
+ * Транспонирование матриц на месте, без выделения второй матрицы.
+ * Квадратные матрицы транспонируются обменом симметричных блоков,
+ * прямоугольные матрицы в плоском массиве - перестановкой по циклам,
+ * для которой нужен только битовый набор посещенных позиций.
+ */
+public class InPlaceTranspose {
+
+    private InPlaceTranspose() {
+    }
+
+    /**
+     * Транспонирует квадратную матрицу на месте.
+     *
+     * @param matrix   Квадратная матрица.
+     * @param tileSize Размер блока.
+     * @throws IllegalArgumentException Если матрица не квадратная.
+     */
+    public static void transposeSquare(int[][] matrix, int tileSize) {
+        int n = matrix.length;
+        for (int[] row : matrix) {
+            if (row.length != n) {
+                throw new IllegalArgumentException("Транспонирование на месте возможно только для квадратной матрицы");
+            }
+        }
+
+        for (int rowBlock = 0; rowBlock < n; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, n);
+            // Блок на диагонали транспонируется сам в себе, остальные
+            // блоки обмениваются с симметричными относительно диагонали
+            for (int colBlock = rowBlock; colBlock < n; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, n);
+                for (int row = rowBlock; row < rowEnd; row++) {
+                    int[] current = matrix[row];
+                    for (int col = Math.max(colBlock, row + 1); col < colEnd; col++) {
+                        int value = current[col];
+                        current[col] = matrix[col][row];
+                        matrix[col][row] = value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Транспонирует на месте квадратную матрицу, хранящуюся построчно в плоском массиве.
+     *
+     * @param data     Элементы матрицы n x n.
+     * @param n        Размер матрицы.
+     * @param tileSize Размер блока.
+     */
+    public static void transposeSquare(int[] data, int n, int tileSize) {
+        for (int rowBlock = 0; rowBlock < n; rowBlock += tileSize) {
+            int rowEnd = Math.min(rowBlock + tileSize, n);
+            for (int colBlock = rowBlock; colBlock < n; colBlock += tileSize) {
+                int colEnd = Math.min(colBlock + tileSize, n);
+                for (int row = rowBlock; row < rowEnd; row++) {
+                    for (int col = Math.max(colBlock, row + 1); col < colEnd; col++) {
+                        int upper = row * n + col;
+                        int lower = col * n + row;
+                        int value = data[upper];
+                        data[upper] = data[lower];
+                        data[lower] = value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Транспонирует на месте прямоугольную матрицу в плоском массиве.
+     * Элемент с индексом i переходит на позицию {@code i * rows mod (N - 1)},
+     * где N = rows * cols; перестановка раскладывается на независимые циклы,
+     * каждый из которых сдвигается одной переменной. Посещенные позиции
+     * отмечаются в битовом наборе размером N бит.
+     *
+     * @param data Элементы матрицы rows x cols, записанные по строкам.
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     */
+    public static void transposeRectangular(int[] data, int rows, int cols) {
+        int size = rows * cols;
+        if (rows <= 1 || cols <= 1) {
+            // Вектор-строка и вектор-столбец хранятся одинаково
+            return;
+        }
+
+        long modulus = size - 1;
+        BitSet visited = new BitSet(size);
+        // Первый и последний элементы остаются на месте
+        for (int start = visited.nextClearBit(1); start < size - 1; start = visited.nextClearBit(start + 1)) {
+            int index = start;
+            int value = data[start];
+            do {
+                int next = (int) (index * (long) rows % modulus);
+                int displaced = data[next];
+                data[next] = value;
+                value = displaced;
+                visited.set(next);
+                index = next;
+            } while (index != start);
+        }
+    }
+
+    /**
+     * Транспонирует на месте матрицу в плоском массиве, выбирая обмен блоков
+     * для квадратной матрицы и перестановку по циклам для прямоугольной.
+     *
+     * @param data Элементы матрицы rows x cols, записанные по строкам.
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     */
+    public static void transpose(int[] data, int rows, int cols) {
+        if (rows == cols) {
+            transposeSquare(data, rows, BlockedTranspose.tileSize());
+        } else {
+            transposeRectangular(data, rows, cols);
+        }
+    }
+}
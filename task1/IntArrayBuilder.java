@@ -0,0 +1,102 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Растущий массив примитивных int без упаковки в объекты.
+ * Используется разборщиками матриц для накопления элементов.
+ */
+public class IntArrayBuilder implements IntConsumer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Наибольший размер массива, который гарантированно можно выделить.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] values;
+    private int size;
+
+    public IntArrayBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает пустой массив с заданной начальной емкостью.
+     *
+     * @param capacity Начальная емкость.
+     */
+    public IntArrayBuilder(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Добавляет значение в конец массива, при необходимости увеличивая емкость.
+     *
+     * @param value Добавляемое значение.
+     */
+    @Override
+    public void accept(int value) {
+        if (size == values.length) {
+            grow();
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Возвращает количество добавленных значений.
+     *
+     * @return Количество значений.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает значение по индексу.
+     *
+     * @param index Индекс значения.
+     * @return Значение.
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    /**
+     * Удаляет все значения, сохраняя выделенную память для повторного использования.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Возвращает массив ровно из добавленных значений. Если емкость совпадает
+     * с размером, возвращается внутренний массив без копирования.
+     *
+     * @return Массив значений.
+     */
+    public int[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Возвращает внутренний массив, первые {@link #size()} элементов которого
+     * содержат добавленные значения.
+     */
+    int[] buffer() {
+        return values;
+    }
+
+    private void grow() {
+        if (values.length >= MAX_CAPACITY) {
+            throw new OutOfMemoryError("Слишком много элементов для массива int[]");
+        }
+        int capacity = (int) Math.min((long) values.length + (values.length >> 1) + 1, MAX_CAPACITY);
+        values = Arrays.copyOf(values, capacity);
+    }
+}
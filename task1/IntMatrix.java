@@ -0,0 +1,213 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Arrays;
+
+/**
+ * Матрица целых чисел, хранящаяся в одном плоском массиве int[].
+ * Положение элемента (row, col) в массиве вычисляется через шаги
+ * по строкам и столбцам: {@code row * rowStride + col * colStride}.
+ * Благодаря этому транспонирование сводится к перестановке шагов
+ * и не требует копирования данных.
+ */
+public class IntMatrix {
+    /**
+     * Массив, в котором хранятся элементы матрицы.
+     */
+    private final int[] data;
+
+    /**
+     * Количество строк матрицы.
+     */
+    private int rows;
+
+    /**
+     * Количество столбцов матрицы.
+     */
+    private int cols;
+
+    /**
+     * Расстояние в массиве между соседними строками.
+     */
+    private int rowStride;
+
+    /**
+     * Расстояние в массиве между соседними столбцами.
+     */
+    private int colStride;
+
+    /**
+     * Создает матрицу заданного размера, заполненную нулями.
+     *
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     */
+    public IntMatrix(int rows, int cols) {
+        this(new int[Math.multiplyExact(rows, cols)], rows, cols, cols, 1);
+    }
+
+    private IntMatrix(int[] data, int rows, int cols, int rowStride, int colStride) {
+        this.data = data;
+        this.rows = rows;
+        this.cols = cols;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    /**
+     * Оборачивает массив, содержащий элементы матрицы построчно, без копирования.
+     *
+     * @param data Элементы матрицы, записанные по строкам.
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     * @return Матрица, использующая переданный массив.
+     * @throws IllegalArgumentException Если длина массива не равна rows * cols.
+     */
+    public static IntMatrix wrap(int[] data, int rows, int cols) {
+        if ((long) rows * cols != data.length) {
+            throw new IllegalArgumentException("Размер массива " + data.length
+                    + " не соответствует размерам матрицы " + rows + "x" + cols);
+        }
+        return new IntMatrix(data, rows, cols, cols, 1);
+    }
+
+    /**
+     * Копирует двумерный массив в плоскую матрицу.
+     *
+     * @param matrix Исходный двумерный массив с одинаковой длиной строк.
+     * @return Новая матрица с теми же элементами.
+     */
+    public static IntMatrix of(int[][] matrix) {
+        int rows = matrix.length;
+        int cols = rows == 0 ? 0 : matrix[0].length;
+        int[] data = new int[Math.multiplyExact(rows, cols)];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(matrix[row], 0, data, row * cols, cols);
+        }
+        return new IntMatrix(data, rows, cols, cols, 1);
+    }
+
+    /**
+     * Возвращает количество строк матрицы.
+     *
+     * @return Количество строк.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает количество столбцов матрицы.
+     *
+     * @return Количество столбцов.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Возвращает элемент матрицы.
+     *
+     * @param row Номер строки.
+     * @param col Номер столбца.
+     * @return Значение элемента.
+     */
+    public int get(int row, int col) {
+        return data[row * rowStride + col * colStride];
+    }
+
+    /**
+     * Изменяет элемент матрицы. Изменение видно во всех представлениях,
+     * разделяющих с этой матрицей общий массив.
+     *
+     * @param row   Номер строки.
+     * @param col   Номер столбца.
+     * @param value Новое значение элемента.
+     */
+    public void set(int row, int col, int value) {
+        data[row * rowStride + col * colStride] = value;
+    }
+
+    /**
+     * Возвращает транспонированное представление матрицы. Данные не копируются:
+     * представление использует тот же массив с переставленными шагами.
+     *
+     * @return Транспонированное представление.
+     */
+    public IntMatrix transpose() {
+        return new IntMatrix(data, cols, rows, colStride, rowStride);
+    }
+
+    /**
+     * Транспонирует матрицу на месте: после вызова эта матрица хранит
+     * транспонированные элементы построчно в том же массиве. Другие
+     * представления, разделяющие с ней массив, становятся недействительными.
+     * Транспонированное представление лишь меняет шаги обратно, не трогая данные.
+     */
+    public void transposeInPlace() {
+        if (isRowMajor()) {
+            InPlaceTranspose.transpose(data, rows, cols);
+        }
+        int transposedRows = cols;
+        cols = rows;
+        rows = transposedRows;
+        rowStride = cols;
+        colStride = 1;
+    }
+
+    /**
+     * Проверяет, хранятся ли элементы матрицы в массиве подряд по строкам.
+     *
+     * @return {@code true}, если матрица не является транспонированным представлением.
+     */
+    public boolean isRowMajor() {
+        return colStride == 1 && (rowStride == cols || rows <= 1);
+    }
+
+    /**
+     * Создает независимую копию матрицы с построчным хранением.
+     * Для транспонированного представления копирование выполняется блоками.
+     *
+     * @return Новая матрица с собственным массивом.
+     */
+    public IntMatrix copy() {
+        int[] copy;
+        if (isRowMajor()) {
+            copy = Arrays.copyOf(data, rows * cols);
+        } else if (rowStride == 1 && (colStride == rows || cols <= 1)) {
+            copy = new int[rows * cols];
+            BlockedTranspose.transpose(data, cols, rows, copy, BlockedTranspose.tileSize());
+        } else {
+            copy = new int[rows * cols];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    copy[row * cols + col] = get(row, col);
+                }
+            }
+        }
+        return new IntMatrix(copy, rows, cols, cols, 1);
+    }
+
+    /**
+     * Копирует матрицу в двумерный массив.
+     *
+     * @return Новый двумерный массив с элементами матрицы.
+     */
+    public int[][] toArray() {
+        int[][] matrix = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            int[] target = matrix[row];
+            for (int col = 0; col < cols; col++) {
+                target[col] = get(row, col);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Возвращает массив, в котором хранятся элементы. Используется
+     * ядрами транспонирования и вывода внутри пакета.
+     */
+    int[] data() {
+        return data;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Клиент сервиса транспонирования {@link MatrixServer}. Передает матрицы
+ * по одному соединению и печатает ответы сервиса, так что на каждую матрицу
+ * не тратится запуск JVM.
+ *
+ * <p>Командная строка: {@code MatrixClient --connect=<порт|unix:путь> файл...},
+ * где файл "-" означает стандартный ввод.
+ */
+public class MatrixClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
+    private byte status;
+
+    /**
+     * Подключается к сервису.
+     *
+     * @param address Адрес сервиса.
+     * @throws IOException Если подключиться не удалось.
+     */
+    public MatrixClient(SocketAddress address) throws IOException {
+        channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        channel.connect(address);
+    }
+
+    /**
+     * Отправляет текст матрицы и ждет ответа сервиса.
+     *
+     * @param matrix Текст матрицы в формате файла {@link App}.
+     * @return Текст ответа: исходная и транспонированная матрицы или сообщение об ошибке.
+     * @throws IOException Если соединение разорвано.
+     */
+    public String transpose(byte[] matrix) throws IOException {
+        header.clear().limit(Integer.BYTES);
+        header.putInt(matrix.length).flip();
+        ByteBuffer[] request = {header, ByteBuffer.wrap(matrix)};
+        while (request[0].hasRemaining() || request[1].hasRemaining()) {
+            channel.write(request);
+        }
+
+        header.clear();
+        MatrixServer.readFully(channel, header, false);
+        status = header.get(0);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(1));
+        MatrixServer.readFully(channel, payload, false);
+        return new String(payload.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Проверяет, была ли в последней отправленной матрице ошибка.
+     *
+     * @return {@code true}, если сервис ответил сообщением об ошибке.
+     */
+    public boolean isError() {
+        return status == MatrixServer.STATUS_ERROR;
+    }
+
+    /**
+     * Закрывает соединение с сервисом.
+     *
+     * @throws IOException Если соединение не удалось закрыть.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Отправляет сервису файлы из командной строки и печатает ответы.
+     *
+     * @param args {@code --connect=<порт|unix:путь>} и файлы с матрицами.
+     */
+    public static void main(String[] args) {
+        String address = null;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--connect=")) {
+                address = arg.substring(arg.indexOf('=') + 1);
+            } else {
+                files.add(arg);
+            }
+        }
+        if (address == null || files.isEmpty()) {
+            System.out.println("Использование: MatrixClient --connect=<порт|unix:путь> файл...");
+            return;
+        }
+
+        try (MatrixClient client = new MatrixClient(MatrixServer.address(address))) {
+            for (String file : files) {
+                byte[] matrix = file.equals("-") ? System.in.readAllBytes() : Files.readAllBytes(Paths.get(file));
+                System.out.print(client.transpose(matrix));
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Не удалось обратиться к сервису " + address + ": "
+                    + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Приемник элементов матрицы, выбирающий способ хранения по доле нулей.
+ * Первые элементы накапливаются в плотном массиве; если среди них не меньше
+ * {@link SparseIntMatrix#SPARSE_ZERO_FRACTION} нулей, накопленное переводится
+ * в разреженный вид и дальше хранятся только ненулевые элементы вместе
+ * с их позициями. Если ненулевых элементов становится слишком много для
+ * разреженного хранения, приемник один раз возвращается к плотному массиву.
+ */
+class MatrixCollector implements IntConsumer {
+
+    /**
+     * Количество первых элементов, по которым принимается решение о способе хранения.
+     */
+    static final int SAMPLE_SIZE = 1 << 16;
+
+    /**
+     * Разреженное хранение занимает 12 байт на ненулевой элемент против 4 байт
+     * на любой элемент в плотном массиве, поэтому оно перестает быть выгодным,
+     * когда ненулевых элементов больше трети.
+     */
+    private static final int DENSE_NON_ZERO_RATIO = 3;
+
+    /**
+     * Плотный массив элементов или null в разреженном режиме.
+     */
+    private IntArrayBuilder dense;
+
+    /**
+     * Позиции ненулевых элементов в порядке по строкам, пока количество
+     * столбцов может быть еще неизвестно.
+     */
+    private long[] positions;
+    private IntArrayBuilder nonZeroValues;
+
+    private long count;
+    private long zeros;
+    private boolean decided;
+
+    /**
+     * Создает приемник с плотным массивом заданной начальной емкости.
+     *
+     * @param capacity Ожидаемое количество элементов.
+     */
+    MatrixCollector(int capacity) {
+        dense = new IntArrayBuilder(Math.min(capacity, SAMPLE_SIZE));
+    }
+
+    @Override
+    public void accept(int value) {
+        if (dense == null) {
+            if (value != 0) {
+                // Счетчик увеличивается до возможного перехода, чтобы switchToDense
+                // скопировал и только что добавленный элемент
+                addNonZero(count++, value);
+                if (decided && (long) nonZeroValues.size() * DENSE_NON_ZERO_RATIO > count) {
+                    // Матрица оказалась плотной: возвращаемся к плотному массиву навсегда
+                    switchToDense();
+                }
+            } else {
+                zeros++;
+                count++;
+            }
+            return;
+        }
+
+        dense.accept(value);
+        if (value == 0) {
+            zeros++;
+        }
+        if (++count == SAMPLE_SIZE && !decided) {
+            decided = true;
+            if (isSparse()) {
+                switchToSparse();
+            }
+        }
+    }
+
+    /**
+     * Проверяет, достаточно ли нулей среди всех полученных элементов,
+     * чтобы хранить матрицу разреженно.
+     */
+    boolean isSparse() {
+        return count > 0 && zeros >= SparseIntMatrix.SPARSE_ZERO_FRACTION * count;
+    }
+
+    /**
+     * Возвращает разобранную матрицу в том виде, который подходит для доли нулей.
+     *
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     * @return Плотная или разреженная матрица.
+     */
+    ParsedMatrix build(int rows, int cols) {
+        if (isSparse()) {
+            return new ParsedMatrix(null, toSparse(rows, cols));
+        }
+        if (dense == null) {
+            switchToDense();
+        }
+        return new ParsedMatrix(IntMatrix.wrap(dense.toArray(), rows, cols), null);
+    }
+
+    private SparseIntMatrix toSparse(int rows, int cols) {
+        if (dense != null) {
+            switchToSparse();
+        }
+        int nonZeros = nonZeroValues.size();
+        int[] rowPointers = new int[rows + 1];
+        int[] colIndices = new int[nonZeros];
+        for (int index = 0; index < nonZeros; index++) {
+            long position = positions[index];
+            rowPointers[(int) (position / cols) + 1]++;
+            colIndices[index] = (int) (position % cols);
+        }
+        for (int row = 0; row < rows; row++) {
+            rowPointers[row + 1] += rowPointers[row];
+        }
+        positions = null;
+        return new SparseIntMatrix(rows, cols, rowPointers, colIndices, nonZeroValues.toArray());
+    }
+
+    private void switchToSparse() {
+        int size = dense.size();
+        int[] buffer = dense.buffer();
+        positions = new long[Math.max(16, (int) (size - zeros))];
+        nonZeroValues = new IntArrayBuilder(positions.length);
+        for (int index = 0; index < size; index++) {
+            if (buffer[index] != 0) {
+                addNonZero(index, buffer[index]);
+            }
+        }
+        dense = null;
+    }
+
+    private void switchToDense() {
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Слишком много элементов для массива int[]");
+        }
+        int nonZeros = nonZeroValues.size();
+        dense = new IntArrayBuilder((int) count + 1);
+        int next = 0;
+        for (long index = 0; index < count; index++) {
+            if (next < nonZeros && positions[next] == index) {
+                dense.accept(nonZeroValues.get(next++));
+            } else {
+                dense.accept(0);
+            }
+        }
+        positions = null;
+        nonZeroValues = null;
+    }
+
+    private void addNonZero(long position, int value) {
+        int size = nonZeroValues.size();
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size + (size >> 1) + 1);
+        }
+        positions[size] = position;
+        nonZeroValues.accept(value);
+    }
+}
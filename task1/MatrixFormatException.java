@@ -0,0 +1,94 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Исключение, сообщающее об ошибке в текстовом файле с матрицей.
+ * Хранит вид ошибки и ее положение, а текст сообщения совпадает с тем,
+ * что {@link App} выводит пользователю.
+ */
+public class MatrixFormatException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Вид ошибки в файле с матрицей.
+     */
+    public enum Kind {
+        /**
+         * Файл не содержит ни одной строки.
+         */
+        EMPTY,
+        /**
+         * Количество элементов в строке отличается от количества в первой строке.
+         */
+        ELEMENT_COUNT,
+        /**
+         * Элемент не является целым числом допустимого диапазона.
+         */
+        VALUE
+    }
+
+    private final Kind kind;
+    private final int row;
+    private final int col;
+
+    /**
+     * Создает исключение.
+     *
+     * @param kind Вид ошибки.
+     * @param row  Номер строки, начиная с 1, или 0, если строка не важна.
+     * @param col  Номер столбца, начиная с 1, или 0, если столбец не важен.
+     */
+    public MatrixFormatException(Kind kind, int row, int col) {
+        super(message(kind, row, col));
+        this.kind = kind;
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Создает исключение о пустом файле.
+     *
+     * @return Исключение вида {@link Kind#EMPTY}.
+     */
+    public static MatrixFormatException empty() {
+        return new MatrixFormatException(Kind.EMPTY, 0, 0);
+    }
+
+    /**
+     * Возвращает такое же исключение, но со сдвинутым номером строки.
+     * Используется, когда файл разбирается по частям и номер строки
+     * внутри части нужно перевести в номер строки файла.
+     *
+     * @param rowOffset Количество строк перед частью файла.
+     * @return Исключение с номером строки, увеличенным на rowOffset.
+     */
+    public MatrixFormatException shiftRows(int rowOffset) {
+        if (kind == Kind.EMPTY || rowOffset == 0) {
+            return this;
+        }
+        return new MatrixFormatException(kind, row + rowOffset, col);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    private static String message(Kind kind, int row, int col) {
+        switch (kind) {
+            case EMPTY:
+                return "Файл со значениями исходной матрицы пустой";
+            case ELEMENT_COUNT:
+                return "Некорректное количество элементов в строке " + row;
+            default:
+                return "Некорректное значение в строке " + row + ", столбце " + col;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package ru.spbstu.telematics.java;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Умножение целочисленных матриц C = A * B поверх транспонирования.
+ * Матрица B один раз транспонируется через {@link App#transposeMatrix(IntMatrix)},
+ * после чего каждый элемент C - скалярное произведение строки A и строки B^T,
+ * и оба сомножителя читаются последовательно.
+ *
+ * <p>Вычисление разбито на блоки по столбцам C и по общей размерности, чтобы
+ * полоса строк B^T оставалась в кэше, пока по ней проходят все строки A.
+ * Внутри блока микроядро считает сразу квадрат 4 x 2 элементов C в восьми
+ * локальных сумматорах: на каждом шаге загружаются 4 элемента A и 2 элемента
+ * B^T, а выполняется 8 умножений. Арифметика int с переполнением по модулю
+ * 2^32, как у обычного тройного цикла, поэтому порядок суммирования не
+ * влияет на результат.
+ */
+public final class MatrixMultiply {
+
+    /**
+     * Количество строк A, обрабатываемых микроядром за раз.
+     */
+    private static final int ROW_STEP = 4;
+
+    /**
+     * Количество строк B^T (столбцов C), обрабатываемых микроядром за раз.
+     */
+    private static final int COL_STEP = 2;
+
+    /**
+     * Длина блока по общей размерности: 256 элементов int - 1 КБ на строку.
+     */
+    private static final int INNER_BLOCK = 256;
+
+    /**
+     * Количество строк B^T в блоке: 64 строки по 1 КБ помещаются в кэш L2.
+     */
+    private static final int COL_BLOCK = 64;
+
+    /**
+     * При меньшем количестве умножений параллельный режим не выигрывает.
+     */
+    private static final long MIN_PARALLEL_WORK = 1 << 20;
+
+    private MatrixMultiply() {
+    }
+
+    /**
+     * Перемножает матрицы в одном потоке.
+     *
+     * @param a Левая матрица размером n x m.
+     * @param b Правая матрица размером m x p.
+     * @return Новая матрица n x p.
+     * @throws IllegalArgumentException Если количество столбцов A не равно количеству строк B.
+     */
+    public static IntMatrix multiply(IntMatrix a, IntMatrix b) {
+        return multiply(a, b, null);
+    }
+
+    /**
+     * Перемножает матрицы, распределяя полосы строк результата по потокам пула.
+     *
+     * @param a    Левая матрица размером n x m.
+     * @param b    Правая матрица размером m x p.
+     * @param pool Пул потоков или {@code null} для вычисления в текущем потоке.
+     * @return Новая матрица n x p.
+     * @throws IllegalArgumentException Если количество столбцов A не равно количеству строк B.
+     */
+    static IntMatrix multiply(IntMatrix a, IntMatrix b, ForkJoinPool pool) {
+        checkSizes(a, b);
+        int rows = a.rows();
+        int inner = a.cols();
+        int cols = b.cols();
+        int[] left = rowMajor(a).data();
+        int[] right = rowMajor(App.transposeMatrix(b)).data();
+        int[] product = new int[Math.multiplyExact(rows, cols)];
+
+        if (pool == null || pool.getParallelism() == 1 || (long) rows * inner * cols < MIN_PARALLEL_WORK) {
+            multiplyRows(left, right, product, inner, cols, 0, rows);
+        } else {
+            int threshold = Math.max(ROW_STEP, rows / (pool.getParallelism() * 4) / ROW_STEP * ROW_STEP);
+            pool.invoke(new RowsTask(left, right, product, inner, cols, 0, rows, threshold));
+        }
+        return IntMatrix.wrap(product, rows, cols);
+    }
+
+    /**
+     * Эталонное умножение тройным циклом без блоков и транспонирования.
+     *
+     * @param a Левая матрица размером n x m.
+     * @param b Правая матрица размером m x p.
+     * @return Новая матрица n x p.
+     * @throws IllegalArgumentException Если количество столбцов A не равно количеству строк B.
+     */
+    public static IntMatrix multiplyReference(IntMatrix a, IntMatrix b) {
+        checkSizes(a, b);
+        IntMatrix product = new IntMatrix(a.rows(), b.cols());
+        for (int row = 0; row < a.rows(); row++) {
+            for (int col = 0; col < b.cols(); col++) {
+                int sum = 0;
+                for (int k = 0; k < a.cols(); k++) {
+                    sum += a.get(row, k) * b.get(k, col);
+                }
+                product.set(row, col, sum);
+            }
+        }
+        return product;
+    }
+
+    private static void checkSizes(IntMatrix a, IntMatrix b) {
+        if (a.cols() != b.rows()) {
+            throw new IllegalArgumentException("Количество столбцов первой матрицы (" + a.cols()
+                    + ") не совпадает с количеством строк второй (" + b.rows() + ")");
+        }
+    }
+
+    private static IntMatrix rowMajor(IntMatrix matrix) {
+        return matrix.isRowMajor() ? matrix : matrix.copy();
+    }
+
+    /**
+     * Вычисляет строки [rowStart, rowEnd) произведения. Строки A и B^T
+     * длиной inner хранятся подряд; результат накапливается в product.
+     */
+    private static void multiplyRows(int[] left, int[] right, int[] product, int inner, int cols,
+                                     int rowStart, int rowEnd) {
+        int rowVectorEnd = rowStart + (rowEnd - rowStart) / ROW_STEP * ROW_STEP;
+        for (int colBlock = 0; colBlock < cols; colBlock += COL_BLOCK) {
+            int colEnd = Math.min(colBlock + COL_BLOCK, cols);
+            int colVectorEnd = colBlock + (colEnd - colBlock) / COL_STEP * COL_STEP;
+            for (int innerBlock = 0; innerBlock < inner; innerBlock += INNER_BLOCK) {
+                int innerEnd = Math.min(innerBlock + INNER_BLOCK, inner);
+                for (int row = rowStart; row < rowVectorEnd; row += ROW_STEP) {
+                    for (int col = colBlock; col < colVectorEnd; col += COL_STEP) {
+                        kernel(left, right, product, inner, cols, row, col, innerBlock, innerEnd);
+                    }
+                    for (int r = row; r < row + ROW_STEP; r++) {
+                        for (int col = colVectorEnd; col < colEnd; col++) {
+                            product[r * cols + col] += dot(left, right, inner, r, col, innerBlock, innerEnd);
+                        }
+                    }
+                }
+                // Строки, не заполняющие целую группу микроядра
+                for (int row = rowVectorEnd; row < rowEnd; row++) {
+                    for (int col = colBlock; col < colEnd; col++) {
+                        product[row * cols + col] += dot(left, right, inner, row, col, innerBlock, innerEnd);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Микроядро: добавляет к квадрату C[row..row+3][col..col+1] вклад
+     * отрезка общей размерности [from, to).
+     */
+    private static void kernel(int[] left, int[] right, int[] product, int inner, int cols,
+                               int row, int col, int from, int to) {
+        int a0 = row * inner;
+        int a1 = a0 + inner;
+        int a2 = a1 + inner;
+        int a3 = a2 + inner;
+        int b0 = col * inner;
+        int b1 = b0 + inner;
+        int c00 = 0, c01 = 0, c10 = 0, c11 = 0, c20 = 0, c21 = 0, c30 = 0, c31 = 0;
+        for (int k = from; k < to; k++) {
+            int x0 = right[b0 + k];
+            int x1 = right[b1 + k];
+            int y = left[a0 + k];
+            c00 += y * x0;
+            c01 += y * x1;
+            y = left[a1 + k];
+            c10 += y * x0;
+            c11 += y * x1;
+            y = left[a2 + k];
+            c20 += y * x0;
+            c21 += y * x1;
+            y = left[a3 + k];
+            c30 += y * x0;
+            c31 += y * x1;
+        }
+        int c = row * cols + col;
+        product[c] += c00;
+        product[c + 1] += c01;
+        product[c + cols] += c10;
+        product[c + cols + 1] += c11;
+        product[c + 2 * cols] += c20;
+        product[c + 2 * cols + 1] += c21;
+        product[c + 3 * cols] += c30;
+        product[c + 3 * cols + 1] += c31;
+    }
+
+    private static int dot(int[] left, int[] right, int inner, int row, int col, int from, int to) {
+        int a = row * inner;
+        int b = col * inner;
+        int sum = 0;
+        for (int k = from; k < to; k++) {
+            sum += left[a + k] * right[b + k];
+        }
+        return sum;
+    }
+
+    /**
+     * Задача, делящая диапазон строк результата пополам, пока он не станет
+     * достаточно мал. Задачи пишут в непересекающиеся строки C.
+     */
+    private static final class RowsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] left;
+        private final int[] right;
+        private final int[] product;
+        private final int inner;
+        private final int cols;
+        private final int rowStart;
+        private final int rowEnd;
+        private final int threshold;
+
+        RowsTask(int[] left, int[] right, int[] product, int inner, int cols,
+                 int rowStart, int rowEnd, int threshold) {
+            this.left = left;
+            this.right = right;
+            this.product = product;
+            this.inner = inner;
+            this.cols = cols;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (rowEnd - rowStart <= threshold) {
+                multiplyRows(left, right, product, inner, cols, rowStart, rowEnd);
+                return;
+            }
+            // Граница кратна шагу микроядра, чтобы остатки считались только в последней полосе
+            int middle = rowStart + ((rowEnd - rowStart) / 2 + ROW_STEP - 1) / ROW_STEP * ROW_STEP;
+            invokeAll(new RowsTask(left, right, product, inner, cols, rowStart, middle, threshold),
+                    new RowsTask(left, right, product, inner, cols, middle, rowEnd, threshold));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.spbstu.telematics.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Разбор текстовых файлов с матрицами. Файл читается блоками байтов через
+ * {@link FileChannel}, а числа декодируются прямо из байтов, без промежуточных
+ * строк и массивов на каждый элемент. Для потоков, которые нельзя открыть
+ * как канал (например, стандартный ввод), есть однопроходный построчный разбор.
+ */
+public class MatrixParser {
+
+    /**
+     * Размер буфера чтения.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MatrixParser() {
+    }
+
+    /**
+     * Разбирает текстовый файл с матрицей.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица, хранящаяся построчно в плоском массиве.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException Если файл пуст, в строке неверное количество
+     *                               элементов или встретилось некорректное значение.
+     */
+    public static IntMatrix parse(Path file) throws IOException {
+        IntArrayBuilder values = new IntArrayBuilder(estimateElements(file));
+        RowScanner scanner = new RowScanner(values);
+        scan(file, scanner);
+        return IntMatrix.wrap(values.toArray(), scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Разбирает текстовый файл с матрицей, выбирая способ хранения по доле нулей:
+     * матрица, в которой не меньше {@link SparseIntMatrix#SPARSE_ZERO_FRACTION}
+     * нулей, накапливается и возвращается в разреженном виде.
+     *
+     * @param file Путь к файлу.
+     * @return Плотная или разреженная матрица.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link #parse(Path)}.
+     */
+    public static ParsedMatrix parseAdaptive(Path file) throws IOException {
+        MatrixCollector values = new MatrixCollector(estimateElements(file));
+        RowScanner scanner = new RowScanner(values);
+        scan(file, scanner);
+        return values.build(scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Разбирает матрицу из символьного потока за один проход. Строки читаются
+     * по одной и сразу раскладываются в растущий массив int, так что прочитанные
+     * строки не накапливаются и могут быть собраны сборщиком мусора. Количество
+     * столбцов определяется по первой строке.
+     *
+     * @param reader Поток с текстом матрицы.
+     * @return Матрица, хранящаяся построчно в плоском массиве.
+     * @throws IOException           Если поток не удалось прочитать.
+     * @throws MatrixFormatException Если поток пуст, в строке неверное количество
+     *                               элементов или встретилось некорректное значение.
+     */
+    public static IntMatrix parse(BufferedReader reader) throws IOException {
+        IntArrayBuilder values = new IntArrayBuilder();
+        RowScanner scanner = new RowScanner(values);
+        scan(reader, scanner);
+        return IntMatrix.wrap(values.toArray(), scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Разбирает матрицу из символьного потока за один проход, выбирая способ
+     * хранения по доле нулей так же, как {@link #parseAdaptive(Path)}.
+     *
+     * @param reader Поток с текстом матрицы.
+     * @return Плотная или разреженная матрица.
+     * @throws IOException           Если поток не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link #parse(BufferedReader)}.
+     */
+    public static ParsedMatrix parseAdaptive(BufferedReader reader) throws IOException {
+        MatrixCollector values = new MatrixCollector(MatrixCollector.SAMPLE_SIZE);
+        RowScanner scanner = new RowScanner(values);
+        scan(reader, scanner);
+        return values.build(scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Разбирает текстовый файл с матрицей, храня элементы в самом узком типе,
+     * в который помещаются все значения. Допустимы значения из диапазона long.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица с элементами byte, short, int или long.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException Если файл пуст, в строке неверное количество
+     *                               элементов или встретилось некорректное значение.
+     */
+    public static TypedMatrix parseTyped(Path file) throws IOException {
+        TypedMatrixBuilder values = new TypedMatrixBuilder(estimateElements(file));
+        RowScanner scanner = new RowScanner(values);
+        scan(file, scanner);
+        return values.build(scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Разбирает матрицу из символьного потока за один проход, храня элементы
+     * в самом узком подходящем типе, как {@link #parseTyped(Path)}.
+     *
+     * @param reader Поток с текстом матрицы.
+     * @return Матрица с элементами byte, short, int или long.
+     * @throws IOException           Если поток не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link #parseTyped(Path)}.
+     */
+    public static TypedMatrix parseTyped(BufferedReader reader) throws IOException {
+        TypedMatrixBuilder values = new TypedMatrixBuilder(16);
+        RowScanner scanner = new RowScanner(values);
+        scan(reader, scanner);
+        return values.build(scanner.rows(), scanner.cols());
+    }
+
+    /**
+     * Оценивает количество элементов в файле, чтобы сразу выделить массив
+     * подходящего размера: каждое число занимает хотя бы два байта вместе
+     * с разделителем, а большая часть чисел длиннее.
+     */
+    private static int estimateElements(Path file) throws IOException {
+        return (int) Math.min(Files.size(file) / 4 + 1, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Читает файл блоками байтов и передает их разборщику.
+     *
+     * @param file    Путь к файлу.
+     * @param scanner Разборщик, складывающий элементы в свой приемник.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException При ошибке в тексте матрицы.
+     */
+    static void scan(Path file, RowScanner scanner) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                scanner.feed(buffer);
+                buffer.clear();
+            }
+            scanner.finish();
+        }
+    }
+
+    /**
+     * Читает символьный поток по строкам и передает их разборщику.
+     *
+     * @param reader  Поток с текстом матрицы.
+     * @param scanner Разборщик, складывающий элементы в свой приемник.
+     * @throws IOException           Если поток не удалось прочитать.
+     * @throws MatrixFormatException При ошибке в тексте матрицы.
+     */
+    static void scan(BufferedReader reader, RowScanner scanner) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            scanner.feedLine(line);
+        }
+        scanner.finish();
+    }
+}
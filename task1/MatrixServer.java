@@ -0,0 +1,379 @@
+package ru.spbstu.telematics.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Долго работающий локальный сервис транспонирования, избавляющий от запуска
+ * JVM на каждую матрицу. Слушает TCP-порт на loopback-интерфейсе или
+ * Unix domain socket; по одному соединению можно передать сколько угодно
+ * матриц.
+ *
+ * <p>Протокол кадровый. Запрос: длина текста матрицы (int, big-endian)
+ * и сам текст в формате файла {@link App}. Ответ: байт состояния
+ * ({@link #STATUS_OK} или {@link #STATUS_ERROR}), длина (int) и текст
+ * в UTF-8 - тот же вывод, что печатает {@link App}, либо сообщение об ошибке.
+ *
+ * <p>Каждое соединение получает из пула набор буферов: буфер чтения,
+ * массивы элементов исходной и транспонированной матрицы, разборщик
+ * и буфер ответа. Буферы растут вместе с запросами и возвращаются в пул при
+ * закрытии соединения, поэтому в установившемся режиме запросы обслуживаются
+ * без выделения памяти. Длина кадра ограничена {@code maxFrameSize}, а набор,
+ * буферы которого выросли больше {@link #POOLED_BUFFER_LIMIT}, в пул
+ * не возвращается, чтобы одна большая матрица не удерживала память навсегда.
+ */
+public class MatrixServer implements AutoCloseable {
+
+    /**
+     * Состояние ответа: матрица транспонирована.
+     */
+    public static final byte STATUS_OK = 0;
+
+    /**
+     * Состояние ответа: в тексте матрицы ошибка, ответ содержит сообщение.
+     */
+    public static final byte STATUS_ERROR = 1;
+
+    /**
+     * Префикс адреса Unix domain socket: {@code unix:/path/to/socket}.
+     */
+    public static final String UNIX_PREFIX = "unix:";
+
+    /**
+     * Наибольшая длина текста матрицы в запросе по умолчанию, в байтах.
+     */
+    public static final int DEFAULT_MAX_FRAME_SIZE = 64 << 20;
+
+    /**
+     * Наибольший размер буфера (в байтах), при котором набор буферов
+     * соединения возвращается в пул.
+     */
+    static final int POOLED_BUFFER_LIMIT = 4 << 20;
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] SOURCE_HEADER = "Исходная матрица:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRANSPOSED_HEADER = "Транспонированная матрица:".getBytes(StandardCharsets.UTF_8);
+
+    private final SocketAddress address;
+    private final ServerSocketChannel server;
+    private final int maxFrameSize;
+    /**
+     * Соединения живут долго, поэтому без виртуальных потоков каждому
+     * выделяется свой поток, а не место в пуле фиксированного размера.
+     */
+    private final ExecutorService executor = BatchTranspose.newExecutor(Executors::newCachedThreadPool);
+    private final ConcurrentLinkedQueue<Session> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Открывает сервер на заданном адресе с ограничением длины запроса
+     * {@link #DEFAULT_MAX_FRAME_SIZE}.
+     *
+     * @param address Адрес TCP на loopback-интерфейсе или Unix domain socket.
+     * @throws IOException Если адрес занят или сокет не удалось открыть.
+     */
+    public MatrixServer(SocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Открывает сервер на заданном адресе.
+     *
+     * @param address      Адрес TCP на loopback-интерфейсе или Unix domain socket.
+     * @param maxFrameSize Наибольшая длина текста матрицы в запросе, в байтах;
+     *                     на более длинный запрос сервер отвечает ошибкой
+     *                     и закрывает соединение.
+     * @throws IOException Если адрес занят или сокет не удалось открыть.
+     */
+    public MatrixServer(SocketAddress address, int maxFrameSize) throws IOException {
+        if (maxFrameSize <= 0) {
+            throw new IllegalArgumentException("Наибольшая длина запроса должна быть положительной: " + maxFrameSize);
+        }
+        this.maxFrameSize = maxFrameSize;
+        if (address instanceof UnixDomainSocketAddress) {
+            // Файл сокета, оставшийся от прошлого запуска, мешает привязке
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(address);
+        this.address = server.getLocalAddress();
+    }
+
+    /**
+     * Разбирает адрес сервиса: номер TCP-порта на loopback-интерфейсе
+     * или {@code unix:путь} для Unix domain socket.
+     *
+     * @param spec Адрес в текстовом виде.
+     * @return Адрес сокета.
+     * @throws IllegalArgumentException Если адрес некорректен.
+     */
+    public static SocketAddress address(String spec) {
+        if (spec.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(spec.substring(UNIX_PREFIX.length()));
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(spec));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный адрес сервиса: " + spec);
+        }
+    }
+
+    /**
+     * Возвращает адрес, на котором слушает сервер; для порта 0 - выбранный системой.
+     *
+     * @return Адрес сервера.
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Принимает соединения, пока сервер не закрыт. Каждое соединение
+     * обслуживается в отдельной задаче.
+     *
+     * @throws IOException Если прием соединения не удался.
+     */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                SocketChannel client = server.accept();
+                executor.execute(() -> handle(client));
+            }
+        } catch (ClosedChannelException e) {
+            // Сервер закрыт методом close()
+        }
+    }
+
+    /**
+     * Закрывает сокет сервера и останавливает обработку соединений.
+     *
+     * @throws IOException Если сокет не удалось закрыть.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        Session session = pool.poll();
+        if (session == null) {
+            session = new Session();
+        }
+        try (SocketChannel channel = client) {
+            while (session.serve(channel, maxFrameSize)) {
+                // Следующий запрос в том же соединении
+            }
+        } catch (IOException e) {
+            // Клиент отключился посреди кадра; соединение просто закрывается
+        } finally {
+            if (session.pooled()) {
+                pool.offer(session);
+            }
+        }
+    }
+
+    /**
+     * Буферы одного соединения, переиспользуемые от запроса к запросу.
+     */
+    private static final class Session {
+        private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
+        private final ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final IntArrayBuilder values = new IntArrayBuilder(READ_BUFFER_SIZE);
+        private final RowScanner scanner = new RowScanner(values);
+        private final FrameBuffer frame = new FrameBuffer();
+        private final MatrixWriter writer = new MatrixWriter(frame, StandardCharsets.UTF_8, false);
+        private final ByteBuffer[] response = new ByteBuffer[2];
+        private ByteBuffer payload = ByteBuffer.wrap(frame.array());
+        private int[] transposed = new int[0];
+
+        /**
+         * Обслуживает один запрос.
+         *
+         * @param maxFrameSize Наибольшая допустимая длина запроса.
+         * @return {@code false}, если клиент закрыл соединение между запросами
+         *         или заголовок кадра некорректен.
+         */
+        boolean serve(SocketChannel channel, int maxFrameSize) throws IOException {
+            header.clear().limit(Integer.BYTES);
+            if (!readFully(channel, header, true)) {
+                return false;
+            }
+            int remaining = header.getInt(0);
+
+            values.clear();
+            scanner.reset();
+            frame.reset();
+            if (remaining < 0 || remaining > maxFrameSize) {
+                // Границы следующего кадра неизвестны, поэтому соединение закрывается
+                writer.writeLine("Некорректная длина запроса: " + remaining + " (допустимо от 0 до "
+                        + maxFrameSize + " байт)");
+                writer.flush();
+                respond(channel, STATUS_ERROR);
+                return false;
+            }
+            byte status = STATUS_OK;
+            try {
+                while (remaining > 0) {
+                    remaining -= read(channel, remaining);
+                    input.flip();
+                    scanner.feed(input);
+                }
+                scanner.finish();
+                writeResult();
+            } catch (MatrixFormatException e) {
+                // Остаток кадра пропускается, чтобы не нарушить границы следующего
+                while (remaining > 0) {
+                    remaining -= read(channel, remaining);
+                }
+                frame.reset();
+                writer.writeLine(e.getMessage());
+                writer.flush();
+                status = STATUS_ERROR;
+            }
+            respond(channel, status);
+            return true;
+        }
+
+        /**
+         * Проверяет, не выросли ли буферы настолько, что набор не стоит
+         * возвращать в пул.
+         */
+        boolean pooled() {
+            return (long) values.buffer().length * Integer.BYTES <= POOLED_BUFFER_LIMIT
+                    && (long) transposed.length * Integer.BYTES <= POOLED_BUFFER_LIMIT
+                    && frame.array().length <= POOLED_BUFFER_LIMIT;
+        }
+
+        /**
+         * Отправляет ответ: состояние и содержимое буфера кадра.
+         */
+        private void respond(SocketChannel channel, byte status) throws IOException {
+            if (payload.array() != frame.array()) {
+                payload = ByteBuffer.wrap(frame.array());
+            }
+            payload.clear().limit(frame.size());
+            header.clear();
+            header.put(status).putInt(frame.size()).flip();
+            response[0] = header;
+            response[1] = payload;
+            while (payload.hasRemaining() || header.hasRemaining()) {
+                channel.write(response);
+            }
+        }
+
+        private void writeResult() throws IOException {
+            int rows = scanner.rows();
+            int cols = scanner.cols();
+            int[] data = values.buffer();
+            if (transposed.length < values.size()) {
+                transposed = new int[values.size()];
+            }
+            BlockedTranspose.transpose(data, rows, cols, transposed, BlockedTranspose.tileSize());
+
+            writer.writeLine(SOURCE_HEADER);
+            writer.write(data, rows, cols);
+            writer.writeLine(TRANSPOSED_HEADER);
+            writer.write(transposed, cols, rows);
+            writer.flush();
+        }
+
+        /**
+         * Читает в буфер ввода не больше remaining байтов запроса.
+         *
+         * @return Количество прочитанных байтов.
+         */
+        private int read(SocketChannel channel, int remaining) throws IOException {
+            input.clear().limit(Math.min(input.capacity(), remaining));
+            int read = channel.read(input);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Читает буфер целиком.
+     *
+     * @param atBoundary Можно ли встретить конец потока до первого байта.
+     * @return {@code false}, если поток закончился на границе кадра.
+     */
+    static boolean readFully(SocketChannel channel, ByteBuffer buffer, boolean atBoundary) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (atBoundary && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Соединение закрыто посреди кадра");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Поток вывода в растущий массив, который можно очистить и заполнить
+     * заново без выделения памяти.
+     */
+    static final class FrameBuffer extends ByteArrayOutputStream {
+        FrameBuffer() {
+            super(READ_BUFFER_SIZE);
+        }
+
+        /**
+         * Возвращает внутренний массив; первые {@link #size()} байтов содержат данные.
+         */
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    /**
+     * Запускает сервер из командной строки: {@code MatrixServer <порт|unix:путь>}
+     * с ограничением длины запроса {@link #DEFAULT_MAX_FRAME_SIZE}.
+     *
+     * @param args Адрес сервиса.
+     * @throws IOException Если сервер не удалось запустить.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Использование: MatrixServer <порт|unix:путь>");
+            return;
+        }
+        serve(args[0], DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Запускает сервер на заданном адресе и обслуживает клиентов до остановки процесса.
+     *
+     * @param spec         Адрес в текстовом виде.
+     * @param maxFrameSize Наибольшая длина текста матрицы в запросе, в байтах.
+     * @throws IOException Если сервер не удалось запустить.
+     */
+    static void serve(String spec, int maxFrameSize) throws IOException {
+        try (MatrixServer server = new MatrixServer(address(spec), maxFrameSize)) {
+            System.out.println("Сервис транспонирования слушает " + server.getAddress());
+            server.serve();
+        }
+    }
+}
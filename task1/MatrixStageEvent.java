@@ -0,0 +1,34 @@
+package ru.spbstu.telematics.java;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JDK Flight Recorder для одного этапа обработки матрицы. Пока запись
+ * не включена (например, параметром JVM {@code -XX:StartFlightRecording}),
+ * событие почти ничего не стоит.
+ */
+@Name("ru.spbstu.telematics.java.MatrixStage")
+@Label("Matrix Stage")
+@Category("Matrix")
+@Description("Этап обработки матрицы: чтение, разбор, транспонирование или вывод")
+final class MatrixStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Elements")
+    long elements;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
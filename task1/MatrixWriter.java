@@ -0,0 +1,459 @@
+package ru.spbstu.telematics.java;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Буферизованный вывод матриц в том же текстовом формате, что и
+ * {@link App#printMatrix(int[][])}: каждый элемент с последующим пробелом,
+ * строки разделены системным переводом строки. Числа форматируются прямо
+ * в многократно используемый байтовый буфер, который сбрасывается в поток
+ * большими порциями, без создания строк на каждый элемент.
+ */
+public class MatrixWriter implements Closeable, Flushable {
+
+    /**
+     * Размер буфера вывода.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Наибольшая длина элемента вместе с пробелом: знак, 10 цифр и пробел.
+     */
+    private static final int MAX_ELEMENT_LENGTH = 12;
+
+    /**
+     * Наибольшая длина элемента long вместе с пробелом: знак, 19 цифр и пробел.
+     */
+    private static final int MAX_LONG_ELEMENT_LENGTH = 21;
+
+    /**
+     * Десятичная запись Integer.MIN_VALUE, модуль которого не помещается в int.
+     */
+    private static final byte[] MIN_VALUE_BYTES = Integer.toString(Integer.MIN_VALUE).getBytes();
+
+    /**
+     * Десятичная запись Long.MIN_VALUE.
+     */
+    private static final byte[] LONG_MIN_VALUE_BYTES = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private final OutputStream out;
+    private final Charset charset;
+    private final boolean closeStream;
+    private final byte[] lineSeparator;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private long flushed;
+
+    /**
+     * Создает вывод в поток с кодировкой по умолчанию.
+     *
+     * @param out Поток вывода; закрывается вместе с этим объектом.
+     */
+    public MatrixWriter(OutputStream out) {
+        this(out, Charset.defaultCharset(), true);
+    }
+
+    /**
+     * Создает вывод в поток.
+     *
+     * @param out         Поток вывода.
+     * @param charset     Кодировка текстовых строк.
+     * @param closeStream Закрывать ли поток при закрытии этого объекта.
+     */
+    public MatrixWriter(OutputStream out, Charset charset, boolean closeStream) {
+        this.out = out;
+        this.charset = charset;
+        this.closeStream = closeStream;
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+    }
+
+    /**
+     * Создает вывод в стандартный поток вывода в обход {@link System#out}.
+     * Закрытие такого объекта только сбрасывает буфер.
+     *
+     * @return Вывод в стандартный поток.
+     */
+    public static MatrixWriter stdout() {
+        // Все, что уже напечатано через System.out, должно оказаться раньше
+        System.out.flush();
+        return new MatrixWriter(new FileOutputStream(FileDescriptor.out), stdoutCharset(), false);
+    }
+
+    /**
+     * Выводит строку текста и перевод строки.
+     *
+     * @param text Строка текста.
+     * @throws IOException Если запись не удалась.
+     */
+    public void writeLine(String text) throws IOException {
+        byte[] bytes = text.getBytes(charset);
+        write(bytes, 0, bytes.length);
+        newLine();
+    }
+
+    /**
+     * Выводит матрицу или сообщение о том, что она пустая.
+     *
+     * @param matrix Матрица для вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    public void write(IntMatrix matrix) throws IOException {
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+
+        if (rows == 0 || cols == 0) {
+            writeLine("Матрица пустая");
+            return;
+        }
+
+        if (matrix.isRowMajor()) {
+            write(matrix.data(), rows, cols);
+        } else {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    writeElement(matrix.get(row, col));
+                }
+                newLine();
+            }
+        }
+    }
+
+    /**
+     * Выводит матрицу, элементы которой записаны по строкам в начале массива.
+     * Массив может быть длиннее матрицы, например, буфер многократного использования.
+     *
+     * @param data Элементы матрицы.
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     * @throws IOException Если запись не удалась.
+     */
+    void write(int[] data, int rows, int cols) throws IOException {
+        for (int row = 0; row < rows; row++) {
+            int offset = row * cols;
+            for (int col = 0; col < cols; col++) {
+                writeElement(data[offset + col]);
+            }
+            newLine();
+        }
+    }
+
+    /**
+     * Выводит разреженную матрицу или сообщение о том, что она пустая.
+     * Нули между хранимыми элементами выводятся без обращения к матрице.
+     *
+     * @param matrix Матрица для вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    public void write(SparseIntMatrix matrix) throws IOException {
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+
+        if (rows == 0 || cols == 0) {
+            writeLine("Матрица пустая");
+            return;
+        }
+
+        int[] rowPointers = matrix.rowPointers();
+        int[] colIndices = matrix.colIndices();
+        int[] values = matrix.values();
+        for (int row = 0; row < rows; row++) {
+            int col = 0;
+            for (int index = rowPointers[row]; index < rowPointers[row + 1]; index++) {
+                for (; col < colIndices[index]; col++) {
+                    writeElement(0);
+                }
+                writeElement(values[index]);
+                col++;
+            }
+            for (; col < cols; col++) {
+                writeElement(0);
+            }
+            newLine();
+        }
+    }
+
+    /**
+     * Выводит матрицу с элементами любого целого типа или сообщение о том,
+     * что она пустая. Массив каждого типа обходится своим циклом.
+     *
+     * @param matrix Матрица для вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    public void write(TypedMatrix matrix) throws IOException {
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+
+        if (rows == 0 || cols == 0) {
+            writeLine("Матрица пустая");
+            return;
+        }
+
+        Object data = matrix.data();
+        for (int row = 0; row < rows; row++) {
+            int offset = row * cols;
+            switch (matrix.type()) {
+                case BYTE:
+                    for (int col = 0; col < cols; col++) {
+                        writeElement(((byte[]) data)[offset + col]);
+                    }
+                    break;
+                case SHORT:
+                    for (int col = 0; col < cols; col++) {
+                        writeElement(((short[]) data)[offset + col]);
+                    }
+                    break;
+                case INT:
+                    for (int col = 0; col < cols; col++) {
+                        writeElement(((int[]) data)[offset + col]);
+                    }
+                    break;
+                default:
+                    for (int col = 0; col < cols; col++) {
+                        writeElement(((long[]) data)[offset + col]);
+                    }
+                    break;
+            }
+            newLine();
+        }
+    }
+
+    /**
+     * Выводит матрицу из памяти вне кучи или сообщение о том, что она пустая.
+     *
+     * @param matrix Матрица для вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    public void write(OffHeapMatrix matrix) throws IOException {
+        long rows = matrix.rows();
+        long cols = matrix.cols();
+
+        if (rows == 0 || cols == 0) {
+            writeLine("Матрица пустая");
+            return;
+        }
+
+        for (long row = 0; row < rows; row++) {
+            for (long col = 0; col < cols; col++) {
+                writeElement(matrix.get(row, col));
+            }
+            newLine();
+        }
+    }
+
+    /**
+     * Выводит матрицу или сообщение о том, что она пустая.
+     *
+     * @param matrix Матрица для вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    public void write(int[][] matrix) throws IOException {
+        if (matrix.length == 0 || matrix[0].length == 0) {
+            writeLine("Матрица пустая");
+            return;
+        }
+
+        for (int[] row : matrix) {
+            for (int value : row) {
+                writeElement(value);
+            }
+            newLine();
+        }
+    }
+
+    /**
+     * Выводит заранее закодированную строку текста и перевод строки.
+     *
+     * @param text Байты строки в кодировке этого вывода.
+     * @throws IOException Если запись не удалась.
+     */
+    void writeLine(byte[] text) throws IOException {
+        write(text, 0, text.length);
+        newLine();
+    }
+
+    /**
+     * Выводит один элемент и пробел после него.
+     *
+     * @param value Значение элемента.
+     * @throws IOException Если запись не удалась.
+     */
+    public void writeElement(int value) throws IOException {
+        if (position + MAX_ELEMENT_LENGTH > buffer.length) {
+            flushBuffer();
+        }
+        position = formatInt(value, buffer, position);
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Выводит один элемент long и пробел после него.
+     *
+     * @param value Значение элемента.
+     * @throws IOException Если запись не удалась.
+     */
+    public void writeElement(long value) throws IOException {
+        if (position + MAX_LONG_ELEMENT_LENGTH > buffer.length) {
+            flushBuffer();
+        }
+        position = formatLong(value, buffer, position);
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Выводит перевод строки.
+     *
+     * @throws IOException Если запись не удалась.
+     */
+    public void newLine() throws IOException {
+        write(lineSeparator, 0, lineSeparator.length);
+    }
+
+    /**
+     * Возвращает количество байтов, выведенных с момента создания, включая
+     * еще не сброшенные из буфера.
+     *
+     * @return Количество байтов.
+     */
+    public long bytesWritten() {
+        return flushed + position;
+    }
+
+    /**
+     * Сбрасывает буфер и поток вывода.
+     *
+     * @throws IOException Если запись не удалась.
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Сбрасывает буфер и, если это предусмотрено, закрывает поток вывода.
+     *
+     * @throws IOException Если запись не удалась.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (closeStream) {
+            out.close();
+        }
+    }
+
+    /**
+     * Записывает десятичное представление числа в массив байтов.
+     *
+     * @param value  Число.
+     * @param target Массив, в который записываются цифры.
+     * @param offset Позиция первого байта.
+     * @return Позиция после последней цифры.
+     */
+    static int formatInt(int value, byte[] target, int offset) {
+        if (value == Integer.MIN_VALUE) {
+            for (int i = 0; i < MIN_VALUE_BYTES.length; i++) {
+                target[offset + i] = MIN_VALUE_BYTES[i];
+            }
+            return offset + MIN_VALUE_BYTES.length;
+        }
+        if (value < 0) {
+            target[offset++] = '-';
+            value = -value;
+        }
+        int end = offset + digits(value);
+        int index = end;
+        do {
+            int quotient = value / 10;
+            target[--index] = (byte) ('0' + (value - quotient * 10));
+            value = quotient;
+        } while (value != 0);
+        return end;
+    }
+
+    /**
+     * Записывает десятичное представление числа long в массив байтов.
+     *
+     * @param value  Число.
+     * @param target Массив, в который записываются цифры.
+     * @param offset Позиция первого байта.
+     * @return Позиция после последней цифры.
+     */
+    static int formatLong(long value, byte[] target, int offset) {
+        if (value == (int) value) {
+            return formatInt((int) value, target, offset);
+        }
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(LONG_MIN_VALUE_BYTES, 0, target, offset, LONG_MIN_VALUE_BYTES.length);
+            return offset + LONG_MIN_VALUE_BYTES.length;
+        }
+        if (value < 0) {
+            target[offset++] = '-';
+            value = -value;
+        }
+        int end = offset + digits(value);
+        int index = end;
+        do {
+            long quotient = value / 10;
+            target[--index] = (byte) ('0' + (value - quotient * 10));
+            value = quotient;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        for (long limit = 10; digits < 10 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                flushed += length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+
+    /**
+     * Определяет кодировку, которую использует {@link System#out}.
+     */
+    private static Charset stdoutCharset() {
+        for (String property : new String[]{"stdout.encoding", "sun.stdout.encoding"}) {
+            String encoding = System.getProperty(property);
+            if (encoding != null && Charset.isSupported(encoding)) {
+                return Charset.forName(encoding);
+            }
+        }
+        return Charset.defaultCharset();
+    }
+}
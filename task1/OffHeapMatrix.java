@@ -0,0 +1,293 @@
+package ru.spbstu.telematics.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * Матрица целых чисел вне кучи Java, в сегменте памяти Foreign Memory API
+ * ({@code jdk.incubator.foreign}). Элементы хранятся построчно и адресуются
+ * индексами long, поэтому их количество не ограничено 2^31, а сборщик мусора
+ * вообще не просматривает данные матрицы. Память освобождается сразу при
+ * вызове {@link #close()}.
+ *
+ * <p>Порядок байтов - little-endian, как в {@link BinaryMatrixFile}, поэтому
+ * двоичный файл отображается в память и используется без преобразования.
+ * Класс загружается только при доступном модуле {@code jdk.incubator.foreign}.
+ */
+public final class OffHeapMatrix implements AutoCloseable {
+
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Наибольший размер отображаемой за раз части текстового файла.
+     */
+    private static final long MAP_CHUNK_SIZE = 1L << 30;
+
+    private final ResourceScope scope;
+    private final MemorySegment segment;
+    private final long rows;
+    private final long cols;
+
+    private OffHeapMatrix(ResourceScope scope, MemorySegment segment, long rows, long cols) {
+        this.scope = scope;
+        this.segment = segment;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Выделяет матрицу заданного размера, заполненную нулями.
+     *
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     * @return Новая матрица вне кучи.
+     */
+    public static OffHeapMatrix allocate(long rows, long cols) {
+        ResourceScope scope = ResourceScope.newConfinedScope();
+        long bytes = Math.multiplyExact(Math.multiplyExact(rows, cols), (long) Integer.BYTES);
+        return new OffHeapMatrix(scope, MemorySegment.allocateNative(Math.max(bytes, 1), scope), rows, cols);
+    }
+
+    /**
+     * Разбирает текстовый файл с матрицей прямо в память вне кучи. Файл
+     * отображается в память частями, так что ни текст, ни элементы не
+     * попадают в кучу Java.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица вне кучи.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link MatrixParser#parse(Path)}.
+     */
+    public static OffHeapMatrix parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Builder values = new Builder(size / 4 + 1);
+            try {
+                RowScanner scanner = new RowScanner(values);
+                for (long position = 0; position < size; position += MAP_CHUNK_SIZE) {
+                    scanner.feed(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(MAP_CHUNK_SIZE, size - position)));
+                }
+                scanner.finish();
+                return values.build(scanner.rows(), scanner.cols());
+            } catch (IOException | RuntimeException e) {
+                values.scope.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Разбирает матрицу из символьного потока за один проход в память вне кучи.
+     *
+     * @param reader Поток с текстом матрицы.
+     * @return Матрица вне кучи.
+     * @throws IOException           Если поток не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link MatrixParser#parse(BufferedReader)}.
+     */
+    public static OffHeapMatrix parse(BufferedReader reader) throws IOException {
+        Builder values = new Builder(1 << 16);
+        try {
+            RowScanner scanner = new RowScanner(values);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                scanner.feedLine(line);
+            }
+            scanner.finish();
+            return values.build(scanner.rows(), scanner.cols());
+        } catch (IOException | RuntimeException e) {
+            values.scope.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Отображает в память двоичный файл с матрицей. Данные не копируются
+     * и читаются из файла по мере обращения к ним.
+     *
+     * @param file Двоичный файл с элементами int.
+     * @return Матрица, отображенная из файла только для чтения.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static OffHeapMatrix load(Path file) throws IOException {
+        BinaryMatrixFile.Header header;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            header = BinaryMatrixFile.readHeader(channel);
+        }
+        if (header.elementSize() != Integer.BYTES) {
+            throw new IOException("Неподдерживаемый размер элемента: " + header.elementSize());
+        }
+        ResourceScope scope = ResourceScope.newConfinedScope();
+        MemorySegment segment = MemorySegment.mapFile(file, BinaryMatrixFile.HEADER_SIZE,
+                header.elements() * Integer.BYTES, FileChannel.MapMode.READ_ONLY, scope);
+        return new OffHeapMatrix(scope, segment, header.rows(), header.cols());
+    }
+
+    /**
+     * Сохраняет матрицу в двоичный файл одним копированием памяти
+     * в отображение файла.
+     *
+     * @param file Путь к файлу; существующий файл перезаписывается.
+     * @throws IOException Если файл не удалось записать.
+     */
+    public void save(Path file) throws IOException {
+        long bytes = elements() * Integer.BYTES;
+        try (FileChannel channel = BinaryMatrixFile.create(file)) {
+            BinaryMatrixFile.writeHeader(channel, rows, cols);
+        }
+        if (bytes == 0) {
+            return;
+        }
+        try (ResourceScope target = ResourceScope.newConfinedScope()) {
+            MemorySegment.mapFile(file, BinaryMatrixFile.HEADER_SIZE, bytes, FileChannel.MapMode.READ_WRITE, target)
+                    .copyFrom(segment.asSlice(0, bytes));
+        }
+    }
+
+    /**
+     * Возвращает количество строк матрицы.
+     *
+     * @return Количество строк.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает количество столбцов матрицы.
+     *
+     * @return Количество столбцов.
+     */
+    public long cols() {
+        return cols;
+    }
+
+    /**
+     * Возвращает количество элементов матрицы.
+     *
+     * @return Количество элементов.
+     */
+    public long elements() {
+        return rows * cols;
+    }
+
+    /**
+     * Возвращает элемент матрицы.
+     *
+     * @param row Номер строки.
+     * @param col Номер столбца.
+     * @return Значение элемента.
+     */
+    public int get(long row, long col) {
+        return MemoryAccess.getIntAtIndex(segment, row * cols + col, ORDER);
+    }
+
+    /**
+     * Изменяет элемент матрицы.
+     *
+     * @param row   Номер строки.
+     * @param col   Номер столбца.
+     * @param value Новое значение элемента.
+     */
+    public void set(long row, long col, int value) {
+        MemoryAccess.setIntAtIndex(segment, row * cols + col, ORDER, value);
+    }
+
+    /**
+     * Транспонирует матрицу блоками в новую матрицу вне кучи.
+     *
+     * @return Новая транспонированная матрица; ее нужно закрыть отдельно.
+     */
+    public OffHeapMatrix transpose() {
+        OffHeapMatrix transposed = allocate(cols, rows);
+        MemorySegment target = transposed.segment;
+        long tileSize = BlockedTranspose.tileSize();
+        for (long rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+            long rowEnd = Math.min(rowBlock + tileSize, rows);
+            for (long colBlock = 0; colBlock < cols; colBlock += tileSize) {
+                long colEnd = Math.min(colBlock + tileSize, cols);
+                for (long col = colBlock; col < colEnd; col++) {
+                    long targetIndex = col * rows;
+                    for (long row = rowBlock; row < rowEnd; row++) {
+                        MemoryAccess.setIntAtIndex(target, targetIndex + row, ORDER,
+                                MemoryAccess.getIntAtIndex(segment, row * cols + col, ORDER));
+                    }
+                }
+            }
+        }
+        return transposed;
+    }
+
+    /**
+     * Копирует матрицу в двумерный массив, если она в нем помещается.
+     *
+     * @return Новый двумерный массив с элементами матрицы.
+     */
+    public int[][] toArray() {
+        int[][] matrix = new int[Math.toIntExact(rows)][Math.toIntExact(cols)];
+        for (int row = 0; row < matrix.length; row++) {
+            for (int col = 0; col < matrix[row].length; col++) {
+                matrix[row][col] = get(row, col);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Освобождает память матрицы или снимает отображение файла.
+     */
+    @Override
+    public void close() {
+        scope.close();
+    }
+
+    /**
+     * Растущий массив int вне кучи: при заполнении выделяется сегмент
+     * в полтора раза больше, данные копируются, а старый сегмент сразу
+     * освобождается.
+     */
+    private static final class Builder implements IntConsumer {
+        private ResourceScope scope;
+        private MemorySegment segment;
+        private long capacity;
+        private long size;
+
+        Builder(long capacity) {
+            this.capacity = Math.max(capacity, 16);
+            this.scope = ResourceScope.newConfinedScope();
+            this.segment = MemorySegment.allocateNative(this.capacity * Integer.BYTES, scope);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (size == capacity) {
+                grow();
+            }
+            MemoryAccess.setIntAtIndex(segment, size++, ORDER, value);
+        }
+
+        OffHeapMatrix build(long rows, long cols) {
+            return new OffHeapMatrix(scope, segment, rows, cols);
+        }
+
+        private void grow() {
+            long newCapacity = capacity + (capacity >> 1) + 1;
+            ResourceScope newScope = ResourceScope.newConfinedScope();
+            MemorySegment newSegment = MemorySegment.allocateNative(newCapacity * Integer.BYTES, newScope);
+            newSegment.asSlice(0, size * Integer.BYTES).copyFrom(segment.asSlice(0, size * Integer.BYTES));
+            scope.close();
+            scope = newScope;
+            segment = newSegment;
+            capacity = newCapacity;
+        }
+    }
+}
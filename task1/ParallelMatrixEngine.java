@@ -0,0 +1,331 @@
+package ru.spbstu.telematics.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельный разбор и транспонирование матриц на {@link ForkJoinPool}.
+ * Файл делится на части по границам строк, части разбираются одновременно,
+ * а транспонирование распределяется по непересекающимся полосам блоков.
+ * Результаты совпадают с последовательными {@link MatrixParser#parse(Path)}
+ * и {@link App#transposeMatrix(int[][])}, включая сообщения об ошибках.
+ */
+public class ParallelMatrixEngine implements AutoCloseable {
+
+    /**
+     * Файлы меньше этого размера разбираются последовательно.
+     */
+    private static final long MIN_PARALLEL_FILE_SIZE = 1 << 20;
+
+    /**
+     * Наименьший размер части файла, разбираемой одной задачей.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 18;
+
+    /**
+     * Наибольший размер части файла: отображение в память ограничено 2 ГБ.
+     */
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+
+    /**
+     * Матрицы с меньшим количеством элементов транспонируются в одном потоке.
+     */
+    private static final long MIN_PARALLEL_ELEMENTS = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Создает движок с уровнем параллелизма, равным числу процессоров.
+     */
+    public ParallelMatrixEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Создает движок с собственным пулом потоков.
+     *
+     * @param parallelism Количество потоков пула.
+     */
+    public ParallelMatrixEngine(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Возвращает уровень параллелизма пула.
+     *
+     * @return Количество потоков пула.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Разбирает текстовый файл с матрицей, обрабатывая части файла параллельно.
+     *
+     * @param file Путь к файлу.
+     * @return Матрица, хранящаяся построчно в плоском массиве.
+     * @throws IOException           Если файл не удалось прочитать.
+     * @throws MatrixFormatException При тех же ошибках, что и {@link MatrixParser#parse(Path)}.
+     */
+    public IntMatrix parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MIN_PARALLEL_FILE_SIZE || pool.getParallelism() == 1) {
+                return MatrixParser.parse(file);
+            }
+
+            List<Chunk> chunks = split(channel, size);
+            // Количество столбцов задает первая строка, она целиком лежит в первой части
+            int cols = RowScanner.countFirstRow(chunks.get(0).map(channel));
+            for (Chunk chunk : chunks) {
+                chunk.cols = cols;
+            }
+
+            try {
+                pool.submit(() -> ForkJoinTask.invokeAll(chunks)).join();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int rowOffset = 0;
+            long total = 0;
+            for (Chunk chunk : chunks) {
+                if (chunk.error != null) {
+                    throw chunk.error.shiftRows(rowOffset);
+                }
+                chunk.valueOffset = total;
+                rowOffset += chunk.rows;
+                total += chunk.values.size();
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Слишком много элементов для массива int[]");
+            }
+
+            int[] data = new int[(int) total];
+            pool.submit(() -> chunks.parallelStream().forEach(chunk -> {
+                System.arraycopy(chunk.values.buffer(), 0, data, (int) chunk.valueOffset, chunk.values.size());
+                chunk.values = null;
+            })).join();
+
+            return IntMatrix.wrap(data, rowOffset, cols);
+        }
+    }
+
+    /**
+     * Транспонирует матрицу, распределяя полосы блоков по потокам пула.
+     *
+     * @param matrix Исходная матрица.
+     * @return Новая транспонированная матрица.
+     */
+    public int[][] transpose(int[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        int[][] transposedMatrix = new int[cols][rows];
+        int tileSize = BlockedTranspose.tileSize();
+
+        invoke(rows, cols, tileSize, (colStart, colEnd) -> {
+            for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+                BlockedTranspose.transposeTile(matrix, transposedMatrix,
+                        rowBlock, Math.min(rowBlock + tileSize, rows), colStart, colEnd);
+            }
+        });
+        return transposedMatrix;
+    }
+
+    /**
+     * Транспонирует плоскую матрицу в новую матрицу с построчным хранением.
+     *
+     * @param matrix Исходная матрица.
+     * @return Новая транспонированная матрица с собственным массивом.
+     */
+    public IntMatrix transpose(IntMatrix matrix) {
+        if (!matrix.isRowMajor()) {
+            // Транспонированное представление уже хранит результат построчно
+            return matrix.transpose().copy();
+        }
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+        int[] source = matrix.data();
+        int[] target = new int[source.length];
+        int tileSize = BlockedTranspose.tileSize();
+
+        invoke(rows, cols, tileSize, (colStart, colEnd) -> {
+            for (int rowBlock = 0; rowBlock < rows; rowBlock += tileSize) {
+                BlockedTranspose.transposeTile(source, rows, cols, target,
+                        rowBlock, Math.min(rowBlock + tileSize, rows), colStart, colEnd);
+            }
+        });
+        return IntMatrix.wrap(target, cols, rows);
+    }
+
+    /**
+     * Перемножает матрицы, распределяя полосы строк результата по потокам пула.
+     *
+     * @param a Левая матрица.
+     * @param b Правая матрица.
+     * @return Новая матрица-произведение.
+     * @throws IllegalArgumentException Если количество столбцов A не равно количеству строк B.
+     */
+    public IntMatrix multiply(IntMatrix a, IntMatrix b) {
+        return MatrixMultiply.multiply(a, b, pool);
+    }
+
+    /**
+     * Останавливает потоки пула.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void invoke(int rows, int cols, int tileSize, ColumnKernel kernel) {
+        if ((long) rows * cols < MIN_PARALLEL_ELEMENTS || pool.getParallelism() == 1) {
+            kernel.transposeColumns(0, cols);
+            return;
+        }
+        int blocks = (cols + tileSize - 1) / tileSize;
+        pool.invoke(new ColumnBlocksTask(kernel, tileSize, cols, 0, blocks,
+                Math.max(1, blocks / (pool.getParallelism() * 4))));
+    }
+
+    /**
+     * Делит файл на части, каждая из которых начинается с новой строки.
+     */
+    private List<Chunk> split(FileChannel channel, long size) throws IOException {
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4L));
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            // Граница сдвигается до ближайшего перевода строки включительно
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+            }
+            end = Math.min(end, size);
+            // Слишком длинная строка не поместится в одно отображение
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Строка матрицы длиннее 2 ГБ не поддерживается параллельным разбором");
+            }
+            chunks.add(new Chunk(channel, start, end - start, end == size));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Часть файла, разбираемая одной задачей.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long position;
+        private final long length;
+        private final boolean last;
+
+        int cols;
+        int rows;
+        long valueOffset;
+        IntArrayBuilder values;
+        MatrixFormatException error;
+
+        Chunk(FileChannel channel, long position, long length, boolean last) {
+            this.channel = channel;
+            this.position = position;
+            this.length = length;
+            this.last = last;
+        }
+
+        MappedByteBuffer map(FileChannel channel) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        @Override
+        protected void compute() {
+            values = new IntArrayBuilder((int) Math.min(length / 4 + 1, Integer.MAX_VALUE - 8));
+            RowScanner scanner = new RowScanner(values, cols);
+            try {
+                scanner.feed(map(channel));
+                if (last) {
+                    scanner.flush();
+                }
+            } catch (MatrixFormatException e) {
+                error = e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows = scanner.rows();
+        }
+    }
+
+    /**
+     * Транспонирование всех строк матрицы для диапазона столбцов [colStart, colEnd).
+     */
+    @FunctionalInterface
+    private interface ColumnKernel {
+        void transposeColumns(int colStart, int colEnd);
+    }
+
+    /**
+     * Задача, делящая диапазон полос столбцов пополам, пока он не станет достаточно мал.
+     * Каждая полоса столбцов исходной матрицы дает свои строки результата,
+     * поэтому задачи пишут в непересекающиеся области памяти.
+     */
+    private static final class ColumnBlocksTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ColumnKernel kernel;
+        private final int tileSize;
+        private final int cols;
+        private final int blockStart;
+        private final int blockEnd;
+        private final int threshold;
+
+        ColumnBlocksTask(ColumnKernel kernel, int tileSize, int cols,
+                         int blockStart, int blockEnd, int threshold) {
+            this.kernel = kernel;
+            this.tileSize = tileSize;
+            this.cols = cols;
+            this.blockStart = blockStart;
+            this.blockEnd = blockEnd;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (blockEnd - blockStart <= threshold) {
+                kernel.transposeColumns(blockStart * tileSize, Math.min(blockEnd * tileSize, cols));
+                return;
+            }
+            int middle = (blockStart + blockEnd) >>> 1;
+            invokeAll(new ColumnBlocksTask(kernel, tileSize, cols, blockStart, middle, threshold),
+                    new ColumnBlocksTask(kernel, tileSize, cols, middle, blockEnd, threshold));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Результат разбора с автоматическим выбором хранения: плотная матрица
+ * либо разреженная, если в ней не меньше
+ * {@link SparseIntMatrix#SPARSE_ZERO_FRACTION} нулевых элементов.
+ */
+public final class ParsedMatrix {
+    private final IntMatrix dense;
+    private final SparseIntMatrix sparse;
+
+    ParsedMatrix(IntMatrix dense, SparseIntMatrix sparse) {
+        this.dense = dense;
+        this.sparse = sparse;
+    }
+
+    /**
+     * Проверяет, хранится ли матрица разреженно.
+     *
+     * @return {@code true}, если матрица разреженная.
+     */
+    public boolean isSparse() {
+        return sparse != null;
+    }
+
+    /**
+     * Возвращает плотную матрицу; разреженная при этом копируется.
+     *
+     * @return Плотная матрица.
+     */
+    public IntMatrix dense() {
+        return dense != null ? dense : sparse.toDense();
+    }
+
+    /**
+     * Возвращает разреженную матрицу; плотная при этом преобразуется.
+     *
+     * @return Разреженная матрица.
+     */
+    public SparseIntMatrix sparse() {
+        return sparse != null ? sparse : SparseIntMatrix.of(dense);
+    }
+}
@@ -0,0 +1,405 @@
+package ru.spbstu.telematics.java;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Побайтовый разборщик текста матрицы: строки разделены переводом строки,
+ * элементы - пробельными символами. Числа собираются прямо из байтов,
+ * без создания строк и массивов для каждого элемента, и передаются в приемник.
+ * Элементы разделяют только пробельные символы {@code \s}: пробел, '\t', '\u000B',
+ * '\f' и '\r'; прочие управляющие байты входят в элемент и делают его некорректным,
+ * а в начале и в конце строки отбрасываются, как при {@code trim()}.
+ * Ошибки сообщаются так же, как при разборе через {@code trim().split("\\s+")}
+ * и {@link Integer#parseInt(String)}: если в строке неверное количество элементов,
+ * об этом сообщается раньше, чем о некорректном значении в той же строке.
+ * В режиме long допустимы значения из диапазона long, как в {@link Long#parseLong(String)}.
+ */
+class RowScanner {
+
+    /**
+     * Наименьшее значение, при котором накопленное число еще можно умножить на 10.
+     */
+    private static final long MULTIPLY_LIMIT = Long.MIN_VALUE / 10;
+
+    private final IntConsumer sink;
+    private final LongConsumer longSink;
+
+    /**
+     * Границы допустимых значений, взятые с минусом: для отрицательных
+     * и для положительных чисел.
+     */
+    private final long negativeLimit;
+    private final long positiveLimit;
+
+    /**
+     * Количество элементов в строке; -1, пока не разобрана первая строка.
+     */
+    private int cols;
+
+    /**
+     * Количество полностью разобранных строк.
+     */
+    private int rows;
+
+    /**
+     * Количество элементов, найденных в текущей строке.
+     */
+    private int col;
+
+    /**
+     * Номер первого некорректного элемента текущей строки или -1.
+     */
+    private int badCol = -1;
+
+    /**
+     * Были ли в текущей строке байты после последнего перевода строки.
+     */
+    private boolean lineStarted;
+
+    /**
+     * Управляющие байты после последнего значимого байта строки. В конце строки
+     * {@code trim()} их отбрасывает, поэтому они учитываются, только когда
+     * в строке встречается следующий значимый байт: pendingTokens - сколько
+     * элементов из одних управляющих байтов они образуют, pendingBadCol - номер
+     * первого элемента, который они делают некорректным, или -1, pendingOpen -
+     * продолжается ли последний из этих элементов.
+     */
+    private int pendingTokens;
+    private int pendingBadCol = -1;
+    private boolean pendingOpen;
+
+    // Состояние текущего элемента
+    private boolean inToken;
+    private boolean negative;
+    private boolean hasDigits;
+    private boolean valid;
+    private long value;
+
+    /**
+     * Создает разборщик, берущий количество столбцов из первой строки.
+     *
+     * @param sink Приемник разобранных элементов.
+     */
+    RowScanner(IntConsumer sink) {
+        this(sink, -1);
+    }
+
+    /**
+     * Создает разборщик с заранее известным количеством столбцов.
+     *
+     * @param sink Приемник разобранных элементов.
+     * @param cols Ожидаемое количество элементов в строке или -1.
+     */
+    RowScanner(IntConsumer sink, int cols) {
+        this.sink = sink;
+        this.longSink = null;
+        this.cols = cols;
+        this.negativeLimit = Integer.MIN_VALUE;
+        this.positiveLimit = -Integer.MAX_VALUE;
+    }
+
+    /**
+     * Создает разборщик значений из диапазона long, берущий количество
+     * столбцов из первой строки.
+     *
+     * @param sink Приемник разобранных элементов.
+     */
+    RowScanner(LongConsumer sink) {
+        this.sink = null;
+        this.longSink = sink;
+        this.cols = -1;
+        this.negativeLimit = Long.MIN_VALUE;
+        this.positiveLimit = -Long.MAX_VALUE;
+    }
+
+    /**
+     * Разбирает все оставшиеся байты буфера. Элемент или строка могут
+     * продолжиться в следующем буфере.
+     *
+     * @param buffer Буфер с очередной частью текста.
+     * @throws MatrixFormatException При ошибке в очередной завершенной строке.
+     */
+    void feed(ByteBuffer buffer) {
+        int end = buffer.limit();
+        for (int i = buffer.position(); i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                dropPending();
+                endToken();
+                endLine();
+            } else if (isSpace(b)) {
+                // Пробельные символы разделяют элементы; '\r' из "\r\n" тоже
+                endToken();
+                pendingOpen = false;
+                lineStarted = true;
+            } else if (b < ' ' && b >= 0) {
+                lineStarted = true;
+                deferControl();
+            } else {
+                lineStarted = true;
+                commitPending();
+                appendToToken(b);
+            }
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Разбирает одну целую строку текста без символа перевода строки.
+     * Символы вне ASCII не могут входить в число и делают элемент некорректным.
+     *
+     * @param line Строка с элементами матрицы.
+     * @throws MatrixFormatException При ошибке в строке.
+     */
+    void feedLine(CharSequence line) {
+        // Границы строки после trim(): управляющие символы по краям отбрасываются
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (isSpace(c)) {
+                endToken();
+            } else {
+                appendToToken(c);
+            }
+        }
+        endToken();
+        endLine();
+    }
+
+    /**
+     * Завершает разбор: последняя строка может не заканчиваться переводом строки.
+     *
+     * @throws MatrixFormatException Если в последней строке есть ошибка или файл пуст.
+     */
+    void finish() {
+        flush();
+        if (rows == 0) {
+            throw MatrixFormatException.empty();
+        }
+    }
+
+    /**
+     * Завершает последнюю строку, если она не закончилась переводом строки.
+     * В отличие от {@link #finish()}, не считает ошибкой отсутствие строк:
+     * используется для частей файла, разбираемых по отдельности.
+     *
+     * @throws MatrixFormatException Если в последней строке есть ошибка.
+     */
+    void flush() {
+        dropPending();
+        endToken();
+        if (lineStarted || col > 0) {
+            endLine();
+        }
+    }
+
+    /**
+     * Считает элементы в первой строке текста так же, как это делает разбор:
+     * пустая строка считается одним (некорректным) элементом.
+     *
+     * @param buffer Буфер, начинающийся с первой строки текста.
+     * @return Количество элементов в первой строке или 0, если буфер пуст.
+     */
+    static int countFirstRow(ByteBuffer buffer) {
+        int lineEnd = buffer.position();
+        while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        // Границы строки после trim(): управляющие байты по краям отбрасываются
+        int start = buffer.position();
+        int end = lineEnd;
+        while (start < end && isTrimmed(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isTrimmed(buffer.get(end - 1))) {
+            end--;
+        }
+        int count = 0;
+        boolean inToken = false;
+        for (int i = start; i < end; i++) {
+            if (isSpace(buffer.get(i))) {
+                inToken = false;
+            } else if (!inToken) {
+                inToken = true;
+                count++;
+            }
+        }
+        if (count == 0 && buffer.limit() > buffer.position()) {
+            return 1;
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает разборщик в начальное состояние для разбора новой матрицы,
+     * чтобы использовать один объект для многих матриц.
+     */
+    void reset() {
+        cols = -1;
+        rows = 0;
+        col = 0;
+        badCol = -1;
+        lineStarted = false;
+        inToken = false;
+        dropPending();
+    }
+
+    /**
+     * Возвращает количество разобранных строк.
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает количество элементов в строке или -1, если ни одна строка не разобрана.
+     */
+    int cols() {
+        return cols;
+    }
+
+    /**
+     * Проверяет, разделяет ли символ элементы, как {@code \s} в регулярном выражении;
+     * перевод строки обрабатывается отдельно.
+     */
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Проверяет, отбрасывает ли {@code trim()} байт на краю строки.
+     */
+    private static boolean isTrimmed(byte b) {
+        return b <= ' ' && b >= 0;
+    }
+
+    /**
+     * Учитывает управляющий байт. В начале строки он отбрасывается, как пробельный,
+     * а после значимых байтов откладывается до следующего значимого байта.
+     */
+    private void deferControl() {
+        if (col == 0 && !inToken && pendingBadCol < 0) {
+            return;
+        }
+        if (inToken) {
+            // Байт входит в текущий элемент
+            if (pendingBadCol < 0) {
+                pendingBadCol = col;
+            }
+        } else if (!pendingOpen) {
+            // Байт начинает элемент из одних управляющих байтов
+            pendingOpen = true;
+            pendingTokens++;
+            if (pendingBadCol < 0) {
+                pendingBadCol = col + pendingTokens - 1;
+            }
+        }
+    }
+
+    /**
+     * Перед значимым байтом отложенные управляющие байты оказываются внутри
+     * строки: их элементы засчитываются как некорректные.
+     */
+    private void commitPending() {
+        if (pendingBadCol < 0) {
+            return;
+        }
+        if (badCol < 0) {
+            badCol = pendingBadCol;
+        }
+        if (pendingOpen) {
+            // Последний элемент продолжается значимым байтом: начинается некорректным
+            col += pendingTokens - 1;
+            appendToToken(0);
+        } else {
+            col += pendingTokens;
+        }
+        dropPending();
+    }
+
+    /**
+     * Отбрасывает управляющие байты в конце строки, как {@code trim()}.
+     */
+    private void dropPending() {
+        pendingTokens = 0;
+        pendingBadCol = -1;
+        pendingOpen = false;
+    }
+
+    private void appendToToken(int b) {
+        if (!inToken) {
+            inToken = true;
+            negative = false;
+            hasDigits = false;
+            valid = true;
+            value = 0;
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                return;
+            }
+        }
+        if (!valid) {
+            return;
+        }
+        int digit = b - '0';
+        if (digit < 0 || digit > 9) {
+            valid = false;
+            return;
+        }
+        hasDigits = true;
+        // Значение накапливается с минусом, как в Integer.parseInt,
+        // чтобы без переполнения представить наименьшее значение типа
+        long limit = negative ? negativeLimit : positiveLimit;
+        if (value < MULTIPLY_LIMIT || value * 10 < limit + digit) {
+            valid = false;
+            return;
+        }
+        value = value * 10 - digit;
+    }
+
+    private void endToken() {
+        if (!inToken) {
+            return;
+        }
+        inToken = false;
+        if (valid && hasDigits) {
+            if (sink != null) {
+                sink.accept((int) (negative ? value : -value));
+            } else {
+                longSink.accept(negative ? value : -value);
+            }
+        } else if (badCol < 0) {
+            badCol = col;
+        }
+        col++;
+    }
+
+    private void endLine() {
+        if (col == 0) {
+            // Пустая строка дает один пустой элемент, который не является числом
+            col = 1;
+            badCol = 0;
+        }
+        if (cols < 0) {
+            cols = col;
+        }
+        if (col != cols) {
+            throw new MatrixFormatException(MatrixFormatException.Kind.ELEMENT_COUNT, rows + 1, 0);
+        }
+        if (badCol >= 0) {
+            throw new MatrixFormatException(MatrixFormatException.Kind.VALUE, rows + 1, badCol + 1);
+        }
+        rows++;
+        col = 0;
+        lineStarted = false;
+    }
+}
@@ -0,0 +1,214 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Arrays;
+
+/**
+ * Разреженная матрица целых чисел в формате CSR (compressed sparse row).
+ * Хранятся только ненулевые элементы: их значения и номера столбцов подряд
+ * по строкам, а для каждой строки - позиция ее первого элемента. Память и
+ * время транспонирования пропорциональны количеству ненулевых элементов,
+ * а не размерам матрицы.
+ */
+public class SparseIntMatrix {
+
+    /**
+     * Доля нулевых элементов, начиная с которой матрицу выгоднее хранить разреженно.
+     */
+    public static final double SPARSE_ZERO_FRACTION = 0.95;
+
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Позиции начала строк в {@link #colIndices} и {@link #values}; длина rows + 1.
+     */
+    private final int[] rowPointers;
+
+    /**
+     * Номера столбцов ненулевых элементов, возрастающие внутри каждой строки.
+     */
+    private final int[] colIndices;
+
+    /**
+     * Значения ненулевых элементов.
+     */
+    private final int[] values;
+
+    SparseIntMatrix(int rows, int cols, int[] rowPointers, int[] colIndices, int[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPointers = rowPointers;
+        this.colIndices = colIndices;
+        this.values = values;
+    }
+
+    /**
+     * Строит разреженную матрицу по плотной.
+     *
+     * @param matrix Плотная матрица.
+     * @return Разреженная матрица с теми же элементами.
+     */
+    public static SparseIntMatrix of(IntMatrix matrix) {
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+        int nonZeros = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (matrix.get(row, col) != 0) {
+                    nonZeros++;
+                }
+            }
+        }
+
+        int[] rowPointers = new int[rows + 1];
+        int[] colIndices = new int[nonZeros];
+        int[] values = new int[nonZeros];
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int value = matrix.get(row, col);
+                if (value != 0) {
+                    colIndices[index] = col;
+                    values[index++] = value;
+                }
+            }
+            rowPointers[row + 1] = index;
+        }
+        return new SparseIntMatrix(rows, cols, rowPointers, colIndices, values);
+    }
+
+    /**
+     * Строит разреженную матрицу по двумерному массиву.
+     *
+     * @param matrix Двумерный массив с одинаковой длиной строк.
+     * @return Разреженная матрица с теми же элементами.
+     */
+    public static SparseIntMatrix of(int[][] matrix) {
+        return of(IntMatrix.of(matrix));
+    }
+
+    /**
+     * Возвращает количество строк матрицы.
+     *
+     * @return Количество строк.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает количество столбцов матрицы.
+     *
+     * @return Количество столбцов.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Возвращает количество хранимых ненулевых элементов.
+     *
+     * @return Количество ненулевых элементов.
+     */
+    public int nonZeros() {
+        return values.length;
+    }
+
+    /**
+     * Возвращает элемент матрицы; номер столбца ищется двоичным поиском в строке.
+     *
+     * @param row Номер строки.
+     * @param col Номер столбца.
+     * @return Значение элемента.
+     */
+    public int get(int row, int col) {
+        if (col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException(col);
+        }
+        int index = Arrays.binarySearch(colIndices, rowPointers[row], rowPointers[row + 1], col);
+        return index >= 0 ? values[index] : 0;
+    }
+
+    /**
+     * Транспонирует матрицу преобразованием CSR в CSC: столбцы исходной матрицы
+     * становятся строками результата. Подсчет элементов в столбцах и один проход
+     * по ненулевым элементам дают время O(nnz + rows + cols); номера строк внутри
+     * каждого столбца получаются упорядоченными без сортировки.
+     *
+     * @return Новая транспонированная матрица.
+     */
+    public SparseIntMatrix transpose() {
+        int nonZeros = values.length;
+        int[] transposedPointers = new int[cols + 1];
+        for (int index = 0; index < nonZeros; index++) {
+            transposedPointers[colIndices[index] + 1]++;
+        }
+        for (int col = 0; col < cols; col++) {
+            transposedPointers[col + 1] += transposedPointers[col];
+        }
+
+        int[] next = Arrays.copyOf(transposedPointers, cols);
+        int[] transposedIndices = new int[nonZeros];
+        int[] transposedValues = new int[nonZeros];
+        for (int row = 0; row < rows; row++) {
+            for (int index = rowPointers[row]; index < rowPointers[row + 1]; index++) {
+                int target = next[colIndices[index]]++;
+                transposedIndices[target] = row;
+                transposedValues[target] = values[index];
+            }
+        }
+        return new SparseIntMatrix(cols, rows, transposedPointers, transposedIndices, transposedValues);
+    }
+
+    /**
+     * Копирует матрицу в плотную матрицу с построчным хранением.
+     *
+     * @return Новая плотная матрица.
+     */
+    public IntMatrix toDense() {
+        IntMatrix dense = new IntMatrix(rows, cols);
+        int[] data = dense.data();
+        for (int row = 0; row < rows; row++) {
+            for (int index = rowPointers[row]; index < rowPointers[row + 1]; index++) {
+                data[row * cols + colIndices[index]] = values[index];
+            }
+        }
+        return dense;
+    }
+
+    /**
+     * Копирует матрицу в двумерный массив.
+     *
+     * @return Новый двумерный массив с элементами матрицы.
+     */
+    public int[][] toArray() {
+        int[][] matrix = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int index = rowPointers[row]; index < rowPointers[row + 1]; index++) {
+                matrix[row][colIndices[index]] = values[index];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Возвращает позиции начала строк. Используется выводом внутри пакета.
+     */
+    int[] rowPointers() {
+        return rowPointers;
+    }
+
+    /**
+     * Возвращает номера столбцов ненулевых элементов.
+     */
+    int[] colIndices() {
+        return colIndices;
+    }
+
+    /**
+     * Возвращает значения ненулевых элементов.
+     */
+    int[] values() {
+        return values;
+    }
+}
@@ -0,0 +1,178 @@
+package ru.spbstu.telematics.java;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Измерения этапов обработки матрицы: время, объем данных, количество
+ * элементов и память, выделенная текущим потоком. Каждый этап, кроме того,
+ * записывается событием {@link MatrixStageEvent} для JDK Flight Recorder,
+ * так что работу можно профилировать без подключения профилировщика.
+ *
+ * <p>Выделенная память считается через
+ * {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}
+ * и не включает память, выделенную потоками пула при параллельной обработке.
+ */
+public final class StageStats {
+
+    /**
+     * Чтение и разбор с проверкой: в этой программе они выполняются за один проход.
+     */
+    public static final String PARSE = "Разбор";
+
+    /**
+     * Транспонирование или умножение.
+     */
+    public static final String COMPUTE = "Вычисление";
+
+    /**
+     * Вывод текста или запись двоичного файла.
+     */
+    public static final String WRITE = "Вывод";
+
+    /**
+     * Пакетная обработка файлов целиком: разбор, транспонирование и запись
+     * всех файлов пакета выполняются вперемешку и измеряются вместе.
+     */
+    public static final String BATCH = "Пакет";
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Начинает измерение этапа.
+     *
+     * @param name Название этапа.
+     * @return Этап, который нужно завершить методом {@link Stage#end(long, long)}.
+     */
+    public Stage begin(String name) {
+        return new Stage(name);
+    }
+
+    /**
+     * Возвращает завершенные этапы в порядке завершения.
+     *
+     * @return Список этапов.
+     */
+    public List<Stage> stages() {
+        return stages;
+    }
+
+    /**
+     * Возвращает сводку по этапам и итог по всей обработке.
+     *
+     * @return Текст сводки.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%-14s %10s %10s %14s %12s%n",
+                "Этап", "Время, мс", "МБ/с", "Элементов/с", "Выделено, МБ"));
+        long nanos = 0;
+        long allocated = 0;
+        for (Stage stage : stages) {
+            text.append(stage);
+            nanos += stage.nanos;
+            allocated += Math.max(stage.allocated, 0);
+        }
+        text.append(String.format(Locale.ROOT, "%-14s %10.3f %10s %14s %12.2f%n",
+                "Всего", nanos / 1e6, "", "", allocated / (double) (1 << 20)));
+        return text.toString();
+    }
+
+    /**
+     * Один этап обработки.
+     */
+    public final class Stage {
+        private final String name;
+        private final MatrixStageEvent event = new MatrixStageEvent();
+        private final long start;
+        private final long startAllocated;
+        private long nanos;
+        private long bytes;
+        private long elements;
+        private long allocated;
+
+        private Stage(String name) {
+            this.name = name;
+            event.begin();
+            this.startAllocated = allocatedBytes();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Завершает измерение этапа и записывает событие.
+         *
+         * @param bytes    Объем обработанных данных в байтах или 0, если он неизвестен.
+         * @param elements Количество обработанных элементов матрицы.
+         */
+        public void end(long bytes, long elements) {
+            this.nanos = System.nanoTime() - start;
+            this.allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+            this.bytes = bytes;
+            this.elements = elements;
+            stages.add(this);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.bytes = bytes;
+                event.elements = elements;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public long elements() {
+            return elements;
+        }
+
+        /**
+         * Возвращает память, выделенную текущим потоком за время этапа,
+         * или -1, если JVM ее не считает.
+         */
+        public long allocated() {
+            return allocated;
+        }
+
+        /**
+         * Возвращает строку сводки: время, пропускную способность и выделенную память.
+         */
+        @Override
+        public String toString() {
+            double seconds = Math.max(nanos, 1) / 1e9;
+            return String.format(Locale.ROOT, "%-14s %10.3f %10s %14s %12s%n", name, nanos / 1e6,
+                    bytes > 0 ? String.format(Locale.ROOT, "%.2f", bytes / seconds / (1 << 20)) : "-",
+                    elements > 0 ? String.format(Locale.ROOT, "%.0f", elements / seconds) : "-",
+                    allocated >= 0 ? String.format(Locale.ROOT, "%.2f", allocated / (double) (1 << 20)) : "-");
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) threads;
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null && THREADS.isThreadAllocatedMemoryEnabled()
+                ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.spbstu.telematics.java;
+
+/**
+ * Матрица целых чисел, элементы которой хранятся построчно в плоском массиве
+ * самого узкого подходящего типа: byte, short, int или long. Матрица из
+ * небольших значений занимает в 2-4 раза меньше памяти, чем {@link IntMatrix},
+ * и во столько же раз быстрее копируется при транспонировании; значения
+ * за пределами int хранятся в long без потери точности.
+ */
+public class TypedMatrix {
+    private final ElementType type;
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Массив элементов: byte[], short[], int[] или long[] в зависимости от типа.
+     */
+    private final Object data;
+
+    TypedMatrix(ElementType type, Object data, int rows, int cols) {
+        this.type = type;
+        this.data = data;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Копирует плоскую матрицу в самый узкий тип, вмещающий все ее элементы.
+     *
+     * @param matrix Исходная матрица.
+     * @return Новая матрица с теми же элементами.
+     */
+    public static TypedMatrix of(IntMatrix matrix) {
+        TypedMatrixBuilder builder = new TypedMatrixBuilder(matrix.rows() * matrix.cols());
+        for (int row = 0; row < matrix.rows(); row++) {
+            for (int col = 0; col < matrix.cols(); col++) {
+                builder.accept(matrix.get(row, col));
+            }
+        }
+        return builder.build(matrix.rows(), matrix.cols());
+    }
+
+    /**
+     * Возвращает тип элементов.
+     *
+     * @return Тип элементов.
+     */
+    public ElementType type() {
+        return type;
+    }
+
+    /**
+     * Возвращает количество строк матрицы.
+     *
+     * @return Количество строк.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает количество столбцов матрицы.
+     *
+     * @return Количество столбцов.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Возвращает элемент матрицы.
+     *
+     * @param row Номер строки.
+     * @param col Номер столбца.
+     * @return Значение элемента.
+     */
+    public long get(int row, int col) {
+        int index = row * cols + col;
+        switch (type) {
+            case BYTE:
+                return ((byte[]) data)[index];
+            case SHORT:
+                return ((short[]) data)[index];
+            case INT:
+                return ((int[]) data)[index];
+            default:
+                return ((long[]) data)[index];
+        }
+    }
+
+    /**
+     * Транспонирует матрицу блочным ядром для ее типа элементов.
+     *
+     * @return Новая транспонированная матрица того же типа.
+     */
+    public TypedMatrix transpose() {
+        int tileSize = BlockedTranspose.tileSize();
+        Object target;
+        switch (type) {
+            case BYTE:
+                target = new byte[rows * cols];
+                BlockedTranspose.transpose((byte[]) data, rows, cols, (byte[]) target, tileSize);
+                break;
+            case SHORT:
+                target = new short[rows * cols];
+                BlockedTranspose.transpose((short[]) data, rows, cols, (short[]) target, tileSize);
+                break;
+            case INT:
+                target = new int[rows * cols];
+                BlockedTranspose.transpose((int[]) data, rows, cols, (int[]) target, tileSize);
+                break;
+            default:
+                target = new long[rows * cols];
+                BlockedTranspose.transpose((long[]) data, rows, cols, (long[]) target, tileSize);
+                break;
+        }
+        return new TypedMatrix(type, target, cols, rows);
+    }
+
+    /**
+     * Копирует матрицу в двумерный массив long.
+     *
+     * @return Новый двумерный массив с элементами матрицы.
+     */
+    public long[][] toArray() {
+        long[][] matrix = new long[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                matrix[row][col] = get(row, col);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Возвращает массив, в котором хранятся элементы. Используется
+     * выводом внутри пакета.
+     */
+    Object data() {
+        return data;
+    }
+}
@@ -0,0 +1,157 @@
+package ru.spbstu.telematics.java;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Растущий массив элементов матрицы, который хранит значения в самом узком
+ * типе, вмещающем наименьшее и наибольшее из уже полученных значений.
+ * Накопление начинается с byte; когда приходит значение вне текущего
+ * диапазона, накопленные элементы один раз копируются в более широкий тип.
+ */
+class TypedMatrixBuilder implements LongConsumer {
+
+    /**
+     * Наибольший размер массива, который гарантированно можно выделить.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private ElementType type = ElementType.BYTE;
+    private byte[] bytes;
+    private short[] shorts;
+    private int[] ints;
+    private long[] longs;
+    private int capacity;
+    private int size;
+
+    private long min;
+    private long max;
+
+    /**
+     * Создает пустой массив с заданной начальной емкостью.
+     *
+     * @param capacity Начальная емкость.
+     */
+    TypedMatrixBuilder(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        bytes = new byte[this.capacity];
+    }
+
+    @Override
+    public void accept(long value) {
+        if (value < min || value > max) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (!type.fits(min, max)) {
+                widen(ElementType.narrowest(min, max));
+            }
+        }
+        if (size == capacity) {
+            grow();
+        }
+        switch (type) {
+            case BYTE:
+                bytes[size++] = (byte) value;
+                break;
+            case SHORT:
+                shorts[size++] = (short) value;
+                break;
+            case INT:
+                ints[size++] = (int) value;
+                break;
+            default:
+                longs[size++] = value;
+                break;
+        }
+    }
+
+    /**
+     * Возвращает тип, в котором сейчас хранятся элементы.
+     */
+    ElementType type() {
+        return type;
+    }
+
+    /**
+     * Возвращает матрицу из накопленных элементов.
+     *
+     * @param rows Количество строк.
+     * @param cols Количество столбцов.
+     * @return Матрица самого узкого подходящего типа.
+     */
+    TypedMatrix build(int rows, int cols) {
+        if ((long) rows * cols != size) {
+            throw new IllegalArgumentException("Количество элементов " + size
+                    + " не соответствует размерам матрицы " + rows + "x" + cols);
+        }
+        Object data;
+        switch (type) {
+            case BYTE:
+                data = size == capacity ? bytes : Arrays.copyOf(bytes, size);
+                break;
+            case SHORT:
+                data = size == capacity ? shorts : Arrays.copyOf(shorts, size);
+                break;
+            case INT:
+                data = size == capacity ? ints : Arrays.copyOf(ints, size);
+                break;
+            default:
+                data = size == capacity ? longs : Arrays.copyOf(longs, size);
+                break;
+        }
+        return new TypedMatrix(type, data, rows, cols);
+    }
+
+    private void widen(ElementType wider) {
+        switch (wider) {
+            case SHORT:
+                shorts = new short[capacity];
+                for (int i = 0; i < size; i++) {
+                    shorts[i] = bytes[i];
+                }
+                break;
+            case INT:
+                ints = new int[capacity];
+                for (int i = 0; i < size; i++) {
+                    ints[i] = type == ElementType.BYTE ? bytes[i] : shorts[i];
+                }
+                break;
+            default:
+                longs = new long[capacity];
+                for (int i = 0; i < size; i++) {
+                    longs[i] = type == ElementType.BYTE ? bytes[i]
+                            : type == ElementType.SHORT ? shorts[i] : ints[i];
+                }
+                break;
+        }
+        bytes = null;
+        if (wider != ElementType.SHORT) {
+            shorts = null;
+        }
+        if (wider == ElementType.LONG) {
+            ints = null;
+        }
+        type = wider;
+    }
+
+    private void grow() {
+        if (capacity >= MAX_CAPACITY) {
+            throw new OutOfMemoryError("Слишком много элементов для массива");
+        }
+        capacity = (int) Math.min((long) capacity + (capacity >> 1) + 1, MAX_CAPACITY);
+        switch (type) {
+            case BYTE:
+                bytes = Arrays.copyOf(bytes, capacity);
+                break;
+            case SHORT:
+                shorts = Arrays.copyOf(shorts, capacity);
+                break;
+            case INT:
+                ints = Arrays.copyOf(ints, capacity);
+                break;
+            default:
+                longs = Arrays.copyOf(longs, capacity);
+                break;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.spbstu.telematics.java;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Микроядро транспонирования на Vector API ({@code jdk.incubator.vector}).
+ * Квадрат 8 x 8 элементов загружается восемью 256-битными векторами-строками
+ * и транспонируется в регистрах за три шага-«бабочки»: на шаге d строки
+ * i и i + d обмениваются половинами из d элементов с помощью перестановки
+ * дорожек (rearrange) и смешивания по маске (blend). Затем векторы записываются
+ * как строки результата. Векторы хранятся в локальных переменных, а не
+ * в массиве, чтобы JIT мог держать их в регистрах. Края блока, не кратные 8,
+ * досчитываются скалярно, поэтому результат в точности совпадает со
+ * скалярным ядром.
+ *
+ * <p>Класс загружается только тогда, когда микроядро включено свойством
+ * {@link BlockedTranspose#VECTOR_PROPERTY} и модуль {@code jdk.incubator.vector}
+ * доступен во время выполнения; проверку выполняет {@link BlockedTranspose}.
+ */
+final class VectorTranspose {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+
+    /**
+     * Сторона транспонируемого в регистрах квадрата.
+     */
+    static final int LANES = SPECIES.length();
+
+    // Для шага d: сдвиг дорожек на d вверх (j берет j - d), сдвиг на d вниз
+    // (j берет j + d) и маска дорожек, у которых в номере установлен бит d
+    private static final VectorShuffle<Integer> UP_1 = shiftUp(1);
+    private static final VectorShuffle<Integer> UP_2 = shiftUp(2);
+    private static final VectorShuffle<Integer> UP_4 = shiftUp(4);
+    private static final VectorShuffle<Integer> DOWN_1 = shiftDown(1);
+    private static final VectorShuffle<Integer> DOWN_2 = shiftDown(2);
+    private static final VectorShuffle<Integer> DOWN_4 = shiftDown(4);
+    private static final VectorMask<Integer> HIGH_1 = highHalf(1);
+    private static final VectorMask<Integer> HIGH_2 = highHalf(2);
+    private static final VectorMask<Integer> HIGH_4 = highHalf(4);
+
+    private VectorTranspose() {
+    }
+
+    /**
+     * Проверяет, что векторы из 8 int поддерживаются процессором,
+     * а не эмулируются скалярным кодом.
+     */
+    static boolean isSupported() {
+        return IntVector.SPECIES_PREFERRED.length() >= LANES;
+    }
+
+    /**
+     * Транспонирует один блок [rowStart, rowEnd) x [colStart, colEnd) плоской матрицы.
+     */
+    static void transposeTile(int[] source, int rows, int cols, int[] target,
+                              int rowStart, int rowEnd, int colStart, int colEnd) {
+        int vectorRowEnd = rowStart + (rowEnd - rowStart) / LANES * LANES;
+        int vectorColEnd = colStart + (colEnd - colStart) / LANES * LANES;
+        transposeSquares(source, null, cols, target, null, rows, rowStart, vectorRowEnd, colStart, vectorColEnd);
+        // Полосы справа и снизу, не заполняющие целый квадрат
+        BlockedTranspose.transposeTileScalar(source, rows, cols, target,
+                rowStart, vectorRowEnd, vectorColEnd, colEnd);
+        BlockedTranspose.transposeTileScalar(source, rows, cols, target,
+                vectorRowEnd, rowEnd, colStart, colEnd);
+    }
+
+    /**
+     * Транспонирует один блок [rowStart, rowEnd) x [colStart, colEnd) матрицы из массивов строк.
+     */
+    static void transposeTile(int[][] source, int[][] target,
+                              int rowStart, int rowEnd, int colStart, int colEnd) {
+        int vectorRowEnd = rowStart + (rowEnd - rowStart) / LANES * LANES;
+        int vectorColEnd = colStart + (colEnd - colStart) / LANES * LANES;
+        transposeSquares(null, source, 0, null, target, 0, rowStart, vectorRowEnd, colStart, vectorColEnd);
+        BlockedTranspose.transposeTileScalar(source, target, rowStart, vectorRowEnd, vectorColEnd, colEnd);
+        BlockedTranspose.transposeTileScalar(source, target, vectorRowEnd, rowEnd, colStart, colEnd);
+    }
+
+    /**
+     * Транспонирует в регистрах все квадраты 8 x 8 блока, размеры которого кратны 8.
+     * Матрица задается либо плоским массивом с шириной строки, либо массивом
+     * строк (второй аргумент каждой пары равен null). В обоих представлениях
+     * строка i квадрата читается из своего массива со смещения from + i * fromStep,
+     * а столбец i пишется в свой массив со смещения to + i * toStep: различается
+     * только выбор массивов и шагов. Векторы создаются и используются прямо
+     * в цикле, без вспомогательных методов, чтобы JIT держал их в регистрах.
+     */
+    private static void transposeSquares(int[] source, int[][] sourceRows, int cols,
+                                         int[] target, int[][] targetRows, int rows,
+                                         int rowStart, int rowEnd, int colStart, int colEnd) {
+        int fromStep = sourceRows != null ? 0 : cols;
+        int toStep = targetRows != null ? 0 : rows;
+        for (int row = rowStart; row < rowEnd; row += LANES) {
+            int[] s0 = sourceRows != null ? sourceRows[row] : source;
+            int[] s1 = sourceRows != null ? sourceRows[row + 1] : source;
+            int[] s2 = sourceRows != null ? sourceRows[row + 2] : source;
+            int[] s3 = sourceRows != null ? sourceRows[row + 3] : source;
+            int[] s4 = sourceRows != null ? sourceRows[row + 4] : source;
+            int[] s5 = sourceRows != null ? sourceRows[row + 5] : source;
+            int[] s6 = sourceRows != null ? sourceRows[row + 6] : source;
+            int[] s7 = sourceRows != null ? sourceRows[row + 7] : source;
+            int rowOffset = sourceRows != null ? 0 : row * cols;
+
+            for (int col = colStart; col < colEnd; col += LANES) {
+                int from = rowOffset + col;
+                IntVector r0 = IntVector.fromArray(SPECIES, s0, from);
+                IntVector r1 = IntVector.fromArray(SPECIES, s1, from + fromStep);
+                IntVector r2 = IntVector.fromArray(SPECIES, s2, from + 2 * fromStep);
+                IntVector r3 = IntVector.fromArray(SPECIES, s3, from + 3 * fromStep);
+                IntVector r4 = IntVector.fromArray(SPECIES, s4, from + 4 * fromStep);
+                IntVector r5 = IntVector.fromArray(SPECIES, s5, from + 5 * fromStep);
+                IntVector r6 = IntVector.fromArray(SPECIES, s6, from + 6 * fromStep);
+                IntVector r7 = IntVector.fromArray(SPECIES, s7, from + 7 * fromStep);
+
+                // d = 1
+                IntVector t0 = r0.blend(r1.rearrange(UP_1), HIGH_1);
+                IntVector t1 = r0.rearrange(DOWN_1).blend(r1, HIGH_1);
+                IntVector t2 = r2.blend(r3.rearrange(UP_1), HIGH_1);
+                IntVector t3 = r2.rearrange(DOWN_1).blend(r3, HIGH_1);
+                IntVector t4 = r4.blend(r5.rearrange(UP_1), HIGH_1);
+                IntVector t5 = r4.rearrange(DOWN_1).blend(r5, HIGH_1);
+                IntVector t6 = r6.blend(r7.rearrange(UP_1), HIGH_1);
+                IntVector t7 = r6.rearrange(DOWN_1).blend(r7, HIGH_1);
+                // d = 2
+                r0 = t0.blend(t2.rearrange(UP_2), HIGH_2);
+                r2 = t0.rearrange(DOWN_2).blend(t2, HIGH_2);
+                r1 = t1.blend(t3.rearrange(UP_2), HIGH_2);
+                r3 = t1.rearrange(DOWN_2).blend(t3, HIGH_2);
+                r4 = t4.blend(t6.rearrange(UP_2), HIGH_2);
+                r6 = t4.rearrange(DOWN_2).blend(t6, HIGH_2);
+                r5 = t5.blend(t7.rearrange(UP_2), HIGH_2);
+                r7 = t5.rearrange(DOWN_2).blend(t7, HIGH_2);
+                // d = 4
+                int to = (targetRows != null ? 0 : col * rows) + row;
+                r0.blend(r4.rearrange(UP_4), HIGH_4).intoArray(targetRows != null ? targetRows[col] : target, to);
+                r1.blend(r5.rearrange(UP_4), HIGH_4).intoArray(targetRows != null ? targetRows[col + 1] : target, to + toStep);
+                r2.blend(r6.rearrange(UP_4), HIGH_4).intoArray(targetRows != null ? targetRows[col + 2] : target, to + 2 * toStep);
+                r3.blend(r7.rearrange(UP_4), HIGH_4).intoArray(targetRows != null ? targetRows[col + 3] : target, to + 3 * toStep);
+                r0.rearrange(DOWN_4).blend(r4, HIGH_4).intoArray(targetRows != null ? targetRows[col + 4] : target, to + 4 * toStep);
+                r1.rearrange(DOWN_4).blend(r5, HIGH_4).intoArray(targetRows != null ? targetRows[col + 5] : target, to + 5 * toStep);
+                r2.rearrange(DOWN_4).blend(r6, HIGH_4).intoArray(targetRows != null ? targetRows[col + 6] : target, to + 6 * toStep);
+                r3.rearrange(DOWN_4).blend(r7, HIGH_4).intoArray(targetRows != null ? targetRows[col + 7] : target, to + 7 * toStep);
+            }
+        }
+    }
+
+    private static VectorShuffle<Integer> shiftUp(int d) {
+        int[] indexes = new int[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            indexes[lane] = (lane & d) != 0 ? lane - d : lane;
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+
+    private static VectorShuffle<Integer> shiftDown(int d) {
+        int[] indexes = new int[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            indexes[lane] = (lane & d) != 0 ? lane : lane + d;
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+
+    private static VectorMask<Integer> highHalf(int d) {
+        boolean[] lanes = new boolean[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            lanes[lane] = (lane & d) != 0;
+        }
+        return VectorMask.fromArray(SPECIES, lanes, 0);
+    }
+}
@@ -0,0 +1,757 @@
+package org.example;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная хеш-таблица с цепочками. В отличие от {@link MyHashMap},
+ * которую приходится защищать общей блокировкой, операции разных потоков
+ * здесь не упорядочиваются друг относительно друга без необходимости:
+ * <ul>
+ *     <li>чтение не берет блокировок: ячейки таблицы читаются через {@link VarHandle}
+ *     с семантикой acquire, а поля узлов {@code value} и {@code next} - volatile;</li>
+ *     <li>вставка в пустой бакет - одна операция compare-and-set над ячейкой таблицы;</li>
+ *     <li>изменение непустого бакета выполняется под монитором его первого узла,
+ *     так что потоки, работающие с разными бакетами, не мешают друг другу;</li>
+ *     <li>количество записей хранится в {@link LongAdder}, а не в общем поле,
+ *     за строку кэша которого соревновались бы все пишущие потоки;</li>
+ *     <li>рехеширование выполняется совместно: поток, встретивший бакет, уже
+ *     перенесенный в новую таблицу, берет себе следующий отрезок бакетов и
+ *     переносит его, вместо того чтобы ждать.</li>
+ * </ul>
+ *
+ * <p>Методы putIfAbsent, compute* и merge атомарны: функция вызывается
+ * под монитором бакета не больше одного раза, и никакой другой поток не изменит
+ * ключ между чтением старого значения и записью нового. Чтобы так же защитить
+ * пустой бакет, в него на время вызова функции ставится заблокированный узел-резерв.
+ * Функция должна быть короткой и не должна обращаться к этой таблице.
+ *
+ * <p>Ключи и значения {@code null} не поддерживаются: {@code null} в результате
+ * {@link #get} всегда означает отсутствие ключа. Итератор слабо согласован:
+ * он не бросает исключений при одновременных изменениях и видит каждую запись,
+ * существовавшую на момент его создания и не удаленную позже, ровно один раз.
+ */
+public class ConcurrentMyHashMap<Key, Value> implements MyMap<Key, Value> {
+
+    /**
+     * Начальная емкость хеш-таблицы по умолчанию.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * Наибольшая емкость: размер массива Java ограничен 2^31 - 1.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Наименьшее количество бакетов, которое поток забирает для переноса за раз.
+     */
+    private static final int MIN_TRANSFER_STRIDE = 16;
+
+    /**
+     * Хеш-код узла-указателя на новую таблицу. Хеш-коды обычных узлов
+     * неотрицательны, поэтому указатель проверяется одним сравнением.
+     */
+    static final int MOVED = -1;
+
+    /**
+     * Хеш-код узла-резерва, занимающего пустой бакет на время вычисления значения.
+     */
+    static final int RESERVED = -2;
+
+    /**
+     * Маска, обнуляющая знаковый бит хеш-кода обычного узла.
+     */
+    private static final int HASH_BITS = 0x7fffffff;
+
+    /**
+     * Доступ к ячейкам таблицы с барьерами памяти и атомарной заменой.
+     */
+    private static final VarHandle BIN = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    /**
+     * Доступ к полю {@link #table} для атомарной публикации новой таблицы.
+     */
+    private static final VarHandle TABLE;
+
+    /**
+     * Доступ к полю {@link #resize} для атомарного начала и окончания рехеширования.
+     */
+    private static final VarHandle RESIZE;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TABLE = lookup.findVarHandle(ConcurrentMyHashMap.class, "table", Node[].class);
+            RESIZE = lookup.findVarHandle(ConcurrentMyHashMap.class, "resize", Resize.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Текущая таблица. Заменяется целиком после окончания рехеширования.
+     */
+    volatile Node<Key, Value>[] table;
+
+    /**
+     * Идущее сейчас рехеширование или null.
+     */
+    private volatile Resize<Key, Value> resize;
+
+    /**
+     * Количество записей, распределенное по ячейкам, чтобы одновременные
+     * вставки и удаления не изменяли одно и то же поле.
+     */
+    private final LongAdder count = new LongAdder();
+
+    public ConcurrentMyHashMap() {
+        table = newTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Создает таблицу, вмещающую заданное количество записей без расширения.
+     *
+     * @param expectedSize Ожидаемое количество записей.
+     */
+    public ConcurrentMyHashMap(int expectedSize) {
+        final long needed = (long) Math.ceil(Math.max(expectedSize, 1) / 0.75) + 1;
+        final int capacity = needed > MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+                : Math.max(DEFAULT_INITIAL_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+        table = newTable(capacity);
+    }
+
+    /**
+     * Получает значение, связанное с указанным ключом. Не берет блокировок.
+     *
+     * @param key Ключ, по которому производится поиск значения.
+     * @return Значение, связанное с указанным ключом, или null, если такого ключа нет.
+     */
+    @Override
+    public Value get(Key key) {
+        final int hash = spread(key.hashCode());
+        Node<Key, Value>[] tab = table;
+        Node<Key, Value> node = binAt(tab, hash & (tab.length - 1));
+        while (node != null) {
+            if (node.hash == MOVED) {
+                // Бакет уже перенесен: продолжаем поиск в новой таблице
+                tab = ((ForwardingNode<Key, Value>) node).nextTable;
+                node = binAt(tab, hash & (tab.length - 1));
+                continue;
+            }
+            if (node.hash == hash && node.key.equals(key)) {
+                return node.value;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    /**
+     * Вставляет элемент в хеш-таблицу или обновляет значение для существующего ключа.
+     *
+     * @param key   Ключ, который следует вставить или обновить.
+     * @param value Значение, связанное с указанным ключом.
+     * @throws NullPointerException Если ключ или значение равны null.
+     */
+    @Override
+    public void put(Key key, Value value) {
+        if (value == null) {
+            throw new NullPointerException("Значения null не поддерживаются.");
+        }
+        final int hash = spread(key.hashCode());
+        Node<Key, Value>[] tab = table;
+        while (true) {
+            final int index = hash & (tab.length - 1);
+            final Node<Key, Value> head = binAt(tab, index);
+            if (head == null) {
+                if (BIN.compareAndSet(tab, index, null, new Node<>(hash, key, value, null))) {
+                    break;
+                }
+            } else if (head.hash == MOVED) {
+                tab = helpResize((ForwardingNode<Key, Value>) head);
+            } else {
+                synchronized (head) {
+                    // Пока монитор не был взят, бакет могли перенести или изменить первый узел
+                    if (binAt(tab, index) != head) {
+                        continue;
+                    }
+                    Node<Key, Value> node = head;
+                    while (true) {
+                        if (node.hash == hash && node.key.equals(key)) {
+                            node.value = value;
+                            return;
+                        }
+                        if (node.next == null) {
+                            node.next = new Node<>(hash, key, value, null);
+                            break;
+                        }
+                        node = node.next;
+                    }
+                }
+                break;
+            }
+        }
+        added(tab);
+    }
+
+    /**
+     * Связывает ключ со значением, если ключа нет. Атомарна.
+     *
+     * @param key   Ключ.
+     * @param value Значение, которое следует связать с ключом.
+     * @return Прежнее значение ключа или null, если ключа не было.
+     * @throws NullPointerException Если значение равно null.
+     */
+    @Override
+    public Value putIfAbsent(Key key, Value value) {
+        Objects.requireNonNull(value);
+        return remap(key, (k, current) -> current != null ? current : value, true, true);
+    }
+
+    /**
+     * Вычисляет значение отсутствующего ключа. Функция вызывается не больше
+     * одного раза, даже если ключ одновременно запрашивают несколько потоков.
+     * Если ключ уже есть, таблица читается без блокировок.
+     *
+     * @param key             Ключ.
+     * @param mappingFunction Функция, вычисляющая значение по ключу.
+     * @return Текущее (существующее или вычисленное) значение ключа или null.
+     */
+    @Override
+    public Value computeIfAbsent(Key key, Function<? super Key, ? extends Value> mappingFunction) {
+        final Value current = get(key);
+        if (current != null) {
+            return current;
+        }
+        return remap(key, (k, value) -> value != null ? value : mappingFunction.apply(k), true, false);
+    }
+
+    /**
+     * Атомарно вычисляет новое значение существующего ключа.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null, если ключа нет.
+     */
+    @Override
+    public Value computeIfPresent(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        return remap(key, remappingFunction, false, false);
+    }
+
+    /**
+     * Атомарно вычисляет новое значение ключа по старому.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null.
+     */
+    @Override
+    public Value compute(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        return remap(key, remappingFunction, true, false);
+    }
+
+    /**
+     * Атомарно добавляет значение или объединяет его со старым.
+     *
+     * @param key               Ключ.
+     * @param value             Значение, добавляемое или объединяемое со старым.
+     * @param remappingFunction Функция, объединяющая старое значение с заданным.
+     * @return Новое значение ключа или null, если запись удалена.
+     * @throws NullPointerException Если value равно null.
+     */
+    @Override
+    public Value merge(Key key, Value value,
+                       BiFunction<? super Value, ? super Value, ? extends Value> remappingFunction) {
+        Objects.requireNonNull(value);
+        return remap(key, (k, current) -> current == null ? value : remappingFunction.apply(current, value),
+                true, false);
+    }
+
+    /**
+     * Общая часть putIfAbsent, compute* и merge. Функция вызывается под монитором
+     * первого узла бакета, а если бакет пуст и ключ можно добавить - под монитором
+     * узла-резерва, который занимает бакет до записи результата.
+     *
+     * @param key       Ключ.
+     * @param function  Функция от ключа и текущего значения (null, если ключа нет),
+     *                  возвращающая новое значение; null удаляет запись.
+     * @param insert    Можно ли добавлять отсутствующий ключ. Если нельзя,
+     *                  для отсутствующего ключа функция не вызывается.
+     * @param returnOld Вернуть прежнее значение вместо нового.
+     * @return Новое или прежнее значение ключа.
+     */
+    private Value remap(Key key, BiFunction<? super Key, ? super Value, ? extends Value> function,
+                        boolean insert, boolean returnOld) {
+        final int hash = spread(key.hashCode());
+        Node<Key, Value>[] tab = table;
+        while (true) {
+            final int index = hash & (tab.length - 1);
+            final Node<Key, Value> head = binAt(tab, index);
+            if (head == null) {
+                if (!insert) {
+                    return null;
+                }
+                final Node<Key, Value> reservation = new Node<>(RESERVED, null, null, null);
+                // Монитор резерва берется до его публикации, чтобы другие потоки ждали результата
+                synchronized (reservation) {
+                    if (BIN.compareAndSet(tab, index, null, reservation)) {
+                        Value value = null;
+                        try {
+                            value = function.apply(key, null);
+                        } finally {
+                            BIN.setRelease(tab, index, value != null ? new Node<>(hash, key, value, null) : null);
+                        }
+                        if (value != null) {
+                            added(tab);
+                        }
+                        return returnOld ? null : value;
+                    }
+                }
+                continue;
+            }
+            if (head.hash == MOVED) {
+                tab = helpResize((ForwardingNode<Key, Value>) head);
+                continue;
+            }
+
+            final Value oldValue;
+            final Value newValue;
+            boolean inserted = false;
+            synchronized (head) {
+                if (binAt(tab, index) != head) {
+                    continue;
+                }
+                Node<Key, Value> previous = null;
+                Node<Key, Value> node = head;
+                while (node != null && !(node.hash == hash && node.key.equals(key))) {
+                    previous = node;
+                    node = node.next;
+                }
+                if (node == null && !insert) {
+                    return null;
+                }
+                oldValue = node != null ? node.value : null;
+                newValue = function.apply(key, oldValue);
+                if (node == null) {
+                    if (newValue != null) {
+                        previous.next = new Node<>(hash, key, newValue, null);
+                        inserted = true;
+                    }
+                } else if (newValue != null) {
+                    node.value = newValue;
+                } else {
+                    if (previous == null) {
+                        BIN.setRelease(tab, index, node.next);
+                    } else {
+                        previous.next = node.next;
+                    }
+                    count.decrement();
+                }
+            }
+            if (inserted) {
+                added(tab);
+            }
+            return returnOld ? oldValue : newValue;
+        }
+    }
+
+    /**
+     * Учитывает добавленную запись и, если таблица заполнена, начинает
+     * рехеширование или помогает идущему.
+     *
+     * @param tab Таблица, в которую была выполнена вставка.
+     */
+    private void added(Node<Key, Value>[] tab) {
+        count.increment();
+        if (count.sum() >= thresholdFor(tab.length)) {
+            startResize(tab);
+        }
+    }
+
+    /**
+     * Удаляет элемент из хеш-таблицы по указанному ключу.
+     *
+     * @param key Ключ элемента, который требуется удалить.
+     * @return Значение, связанное с удаленным ключом, или null, если ключ не найден.
+     */
+    @Override
+    public Value remove(Key key) {
+        final int hash = spread(key.hashCode());
+        Node<Key, Value>[] tab = table;
+        while (true) {
+            final int index = hash & (tab.length - 1);
+            final Node<Key, Value> head = binAt(tab, index);
+            if (head == null) {
+                return null;
+            }
+            if (head.hash == MOVED) {
+                tab = helpResize((ForwardingNode<Key, Value>) head);
+                continue;
+            }
+            synchronized (head) {
+                if (binAt(tab, index) != head) {
+                    continue;
+                }
+                Node<Key, Value> previous = null;
+                for (Node<Key, Value> node = head; node != null; previous = node, node = node.next) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        if (previous == null) {
+                            BIN.setRelease(tab, index, node.next);
+                        } else {
+                            previous.next = node.next;
+                        }
+                        count.decrement();
+                        return node.value;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество элементов (пар ключ-значение) в хеш-таблице.
+     * При одновременных изменениях результат - оценка, а не точное значение.
+     *
+     * @return Количество элементов в хеш-таблице.
+     */
+    @Override
+    public int size() {
+        final long sum = count.sum();
+        return sum < 0 ? 0 : (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Проверяет, пуста ли хеш-таблица.
+     *
+     * @return {@code true}, если хеш-таблица не содержит элементов, иначе {@code false}.
+     */
+    @Override
+    public boolean isEmpty() {
+        return count.sum() <= 0;
+    }
+
+    /**
+     * Возвращает слабо согласованный итератор по записям таблицы.
+     *
+     * @return Итератор записей.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+        return new EntryIterator(table);
+    }
+
+    /**
+     * Перемешивает хеш-код ключа и обнуляет знаковый бит, чтобы хеш-код
+     * обычного узла не совпал с {@link #MOVED}.
+     */
+    static int spread(int hash) {
+        return MyHashMap.mix(hash) & HASH_BITS;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> binAt(Node<K, V>[] tab, int index) {
+        return (Node<K, V>) BIN.getAcquire(tab, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node<?, ?>[capacity];
+    }
+
+    /**
+     * Количество записей, при котором таблица заданной емкости расширяется:
+     * 3/4 емкости.
+     */
+    private static int thresholdFor(int capacity) {
+        return capacity >= MAXIMUM_CAPACITY ? Integer.MAX_VALUE : capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Начинает рехеширование таблицы, если его еще никто не начал, и участвует
+     * в нем. Если рехеширование уже идет, помогает ему.
+     *
+     * @param tab Таблица, в которую была выполнена вставка.
+     */
+    private void startResize(Node<Key, Value>[] tab) {
+        Resize<Key, Value> current = resize;
+        if (current == null) {
+            if (tab != table || tab.length >= MAXIMUM_CAPACITY) {
+                return;
+            }
+            final Resize<Key, Value> started = new Resize<>(tab, newTable(tab.length << 1));
+            if (RESIZE.compareAndSet(this, null, started)) {
+                // Между проверкой и заменой таблицу могли уже расширить. Присоединившиеся
+                // помощники найдут только перенесенные бакеты, а новую таблицу не опубликуют
+                if (tab != table) {
+                    RESIZE.compareAndSet(this, started, null);
+                    return;
+                }
+                current = started;
+            } else {
+                current = resize;
+                if (current == null) {
+                    return;
+                }
+            }
+        }
+        transfer(current);
+    }
+
+    /**
+     * Помогает рехешированию, встреченному при обращении к перенесенному бакету.
+     *
+     * @param forwarding Узел-указатель на новую таблицу.
+     * @return Новая таблица, в которой нужно повторить операцию.
+     */
+    private Node<Key, Value>[] helpResize(ForwardingNode<Key, Value> forwarding) {
+        final Resize<Key, Value> current = resize;
+        if (current != null && current.target == forwarding.nextTable) {
+            transfer(current);
+        }
+        return forwarding.nextTable;
+    }
+
+    /**
+     * Забирает отрезки бакетов старой таблицы, пока они не кончатся, и переносит
+     * их. Поток, перенесший последний бакет, публикует новую таблицу.
+     */
+    private void transfer(Resize<Key, Value> current) {
+        final Node<Key, Value>[] source = current.source;
+        final int stride = Math.max(MIN_TRANSFER_STRIDE,
+                source.length / (8 * Runtime.getRuntime().availableProcessors()));
+        while (true) {
+            // Диапазон захватывается CAS, а не getAndAdd: иначе помощники, пришедшие
+            // после раздачи всех диапазонов, уводили бы счетчик ниже нуля до переполнения
+            final int end = current.nextIndex.get();
+            if (end <= 0) {
+                return;
+            }
+            final int start = Math.max(0, end - stride);
+            if (!current.nextIndex.compareAndSet(end, start)) {
+                continue;
+            }
+            for (int index = end - 1; index >= start; index--) {
+                transferBin(current, index);
+            }
+            if (current.remaining.addAndGet(start - end) == 0) {
+                if (TABLE.compareAndSet(this, source, current.target)) {
+                    // Пока шел перенос, записей могло стать больше нового порога
+                    RESIZE.compareAndSet(this, current, null);
+                    if (count.sum() >= thresholdFor(current.target.length)) {
+                        startResize(current.target);
+                    }
+                } else {
+                    RESIZE.compareAndSet(this, current, null);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Переносит один бакет. Узлы старой цепочки не изменяются, а копируются,
+     * чтобы читающие ее без блокировок потоки не потеряли хвост. Общий хвост,
+     * все узлы которого попадают в одну половину, используется повторно.
+     */
+    private void transferBin(Resize<Key, Value> current, int index) {
+        final Node<Key, Value>[] source = current.source;
+        final Node<Key, Value>[] target = current.target;
+        final int bit = source.length;
+        while (true) {
+            final Node<Key, Value> head = binAt(source, index);
+            if (head == null) {
+                if (BIN.compareAndSet(source, index, null, current.forwarding)) {
+                    return;
+                }
+                continue;
+            }
+            if (head.hash == MOVED) {
+                // Бакет уже перенесен предыдущим рехешированием
+                return;
+            }
+            synchronized (head) {
+                if (binAt(source, index) != head) {
+                    continue;
+                }
+                Node<Key, Value> lastRun = head;
+                int lastRunBit = head.hash & bit;
+                for (Node<Key, Value> node = head.next; node != null; node = node.next) {
+                    final int nodeBit = node.hash & bit;
+                    if (nodeBit != lastRunBit) {
+                        lastRunBit = nodeBit;
+                        lastRun = node;
+                    }
+                }
+                Node<Key, Value> low = lastRunBit == 0 ? lastRun : null;
+                Node<Key, Value> high = lastRunBit == 0 ? null : lastRun;
+                for (Node<Key, Value> node = head; node != lastRun; node = node.next) {
+                    if ((node.hash & bit) == 0) {
+                        low = new Node<>(node.hash, node.key, node.value, low);
+                    } else {
+                        high = new Node<>(node.hash, node.key, node.value, high);
+                    }
+                }
+                BIN.setRelease(target, index, low);
+                BIN.setRelease(target, index + bit, high);
+                BIN.setRelease(source, index, current.forwarding);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Узел цепочки. Ключ и хеш-код неизменны, значение и ссылка на следующий
+     * узел - volatile, чтобы читающие без блокировок потоки видели изменения.
+     */
+    static class Node<Key, Value> {
+        final int hash;
+        final Key key;
+        volatile Value value;
+        volatile Node<Key, Value> next;
+
+        Node(int hash, Key key, Value value, Node<Key, Value> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Узел, которым заменяется перенесенный бакет старой таблицы.
+     * Указывает на таблицу, в которой теперь надо искать.
+     */
+    static final class ForwardingNode<Key, Value> extends Node<Key, Value> {
+        final Node<Key, Value>[] nextTable;
+
+        ForwardingNode(Node<Key, Value>[] nextTable) {
+            super(MOVED, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /**
+     * Состояние одного рехеширования. Отдельный объект на каждое рехеширование
+     * не позволяет помощнику по ошибке присоединиться к следующему.
+     */
+    private static final class Resize<Key, Value> {
+        final Node<Key, Value>[] source;
+        final Node<Key, Value>[] target;
+        final ForwardingNode<Key, Value> forwarding;
+
+        /**
+         * Граница еще не розданных бакетов: отрезки забираются с конца таблицы.
+         */
+        final AtomicInteger nextIndex;
+
+        /**
+         * Количество еще не перенесенных бакетов.
+         */
+        final AtomicInteger remaining;
+
+        Resize(Node<Key, Value>[] source, Node<Key, Value>[] target) {
+            this.source = source;
+            this.target = target;
+            this.forwarding = new ForwardingNode<>(target);
+            this.nextIndex = new AtomicInteger(source.length);
+            this.remaining = new AtomicInteger(source.length);
+        }
+    }
+
+    /**
+     * Итератор, обходящий бакеты таблицы, существовавшей на момент его создания.
+     * Перенесенный бакет обходится по двум бакетам новой таблицы, в которые он разделился.
+     */
+    private class EntryIterator implements Iterator<Entry<Key, Value>> {
+        private final Node<Key, Value>[] tab;
+        private int index;
+        private final List<Node<Key, Value>> bin = new ArrayList<>();
+        private int position;
+
+        EntryIterator(Node<Key, Value>[] tab) {
+            this.tab = tab;
+            advance();
+        }
+
+        private void advance() {
+            while (position == bin.size() && index < tab.length) {
+                bin.clear();
+                position = 0;
+                collect(tab, index++);
+            }
+        }
+
+        private void collect(Node<Key, Value>[] from, int binIndex) {
+            Node<Key, Value> node = binAt(from, binIndex);
+            if (node != null && node.hash == MOVED) {
+                final Node<Key, Value>[] next = ((ForwardingNode<Key, Value>) node).nextTable;
+                collect(next, binIndex);
+                collect(next, binIndex + from.length);
+                return;
+            }
+            for (; node != null; node = node.next) {
+                // Узел-резерв не является записью
+                if (node.hash != RESERVED) {
+                    bin.add(node);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < bin.size();
+        }
+
+        @Override
+        public Entry<Key, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Node<Key, Value> node = bin.get(position++);
+            advance();
+            return new MapEntry(node.key, node.value);
+        }
+    }
+
+    /**
+     * Запись, выданная итератором. Изменение значения записывается в таблицу
+     * через {@link #put}, так как узел мог быть скопирован при рехешировании.
+     */
+    private class MapEntry implements Entry<Key, Value> {
+        private final Key key;
+        private Value value;
+
+        MapEntry(Key key, Value value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Key getKey() {
+            return key;
+        }
+
+        @Override
+        public Value getValue() {
+            return value;
+        }
+
+        @Override
+        public Value setValue(Value value) {
+            final Value previous = this.value;
+            this.value = value;
+            put(key, value);
+            return previous;
+        }
+    }
+}
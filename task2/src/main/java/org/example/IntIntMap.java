@@ -0,0 +1,316 @@
+package org.example;
+
+/**
+ * Хеш-таблица с ключами и значениями типа int без упаковки в {@link Integer}.
+ * Устроена так же, как {@link OpenAddressingMap}: открытая адресация с линейным
+ * пробированием, фибоначчиево хеширование и удаление обратным сдвигом, но ключи
+ * и значения лежат в массивах int. Операции не создают объектов и не вызывают
+ * hashCode/equals: хеш-код ключа - сам ключ.
+ *
+ * <p>Свободная ячейка обозначается ключом 0. Запись с ключом 0 хранится
+ * отдельно от массивов, в полях {@code hasZeroKey} и {@code zeroValue}.
+ * Для отсутствующего ключа методы {@link #get} и {@link #remove} возвращают
+ * значение {@code noEntryValue}, заданное при создании таблицы.
+ */
+public class IntIntMap {
+
+    /**
+     * Начальная емкость хеш-таблицы по умолчанию.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * Наибольшая емкость: размер массива Java ограничен 2^31 - 1.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Коэффициент загрузки, как у {@link OpenAddressingMap}.
+     */
+    private static final double LOAD_FACTOR = 0.7;
+
+    /**
+     * Множитель фибоначчиева хеширования: 2^32 / золотое сечение.
+     */
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    /**
+     * Ключи записей; 0 означает свободную ячейку.
+     */
+    int[] keys;
+
+    /**
+     * Значения записей в тех же ячейках, что и ключи.
+     */
+    int[] values;
+
+    /**
+     * Есть ли запись с ключом 0.
+     */
+    private boolean hasZeroKey;
+
+    /**
+     * Значение записи с ключом 0.
+     */
+    private int zeroValue;
+
+    /**
+     * Количество записей в таблице, включая запись с ключом 0.
+     */
+    private int size;
+
+    /**
+     * Сдвиг, оставляющий от произведения ключа на множитель номер ячейки.
+     */
+    private int shift;
+
+    /**
+     * Количество записей в массивах, при котором таблица расширяется.
+     */
+    private int threshold;
+
+    /**
+     * Значение, которое возвращается для отсутствующего ключа.
+     */
+    private final int noEntryValue;
+
+    public IntIntMap() {
+        this(DEFAULT_INITIAL_CAPACITY, 0);
+    }
+
+    /**
+     * Создает таблицу, вмещающую заданное количество записей без расширения.
+     *
+     * @param expectedSize Ожидаемое количество записей.
+     * @param noEntryValue Значение, возвращаемое для отсутствующего ключа.
+     */
+    public IntIntMap(int expectedSize, int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Получает значение, связанное с указанным ключом.
+     *
+     * @param key Ключ, по которому производится поиск значения.
+     * @return Значение или noEntryValue, если такого ключа нет.
+     */
+    public int get(int key) {
+        return getOrDefault(key, noEntryValue);
+    }
+
+    /**
+     * Получает значение, связанное с указанным ключом, или заданное значение.
+     *
+     * @param key          Ключ, по которому производится поиск значения.
+     * @param defaultValue Значение, возвращаемое, если ключа нет.
+     * @return Значение или defaultValue, если такого ключа нет.
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        final int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Проверяет, содержит ли хеш-таблица указанный ключ.
+     *
+     * @param key Ключ, который требуется проверить.
+     * @return {@code true}, если ключ содержится в хеш-таблице.
+     */
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Вставляет элемент в хеш-таблицу или обновляет значение для существующего ключа.
+     *
+     * @param key   Ключ, который следует вставить или обновить.
+     * @param value Значение, связанное с указанным ключом.
+     */
+    public void put(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        final int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final int current = keys[slot];
+            if (current == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > threshold) {
+                    resize();
+                }
+                return;
+            }
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет элемент из хеш-таблицы по указанному ключу.
+     *
+     * @param key Ключ элемента, который требуется удалить.
+     * @return Значение удаленного ключа или noEntryValue, если ключ не найден.
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return noEntryValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        final int slot = find(key);
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        final int previous = values[slot];
+        size--;
+        shiftBack(slot);
+        return previous;
+    }
+
+    /**
+     * Возвращает количество элементов (пар ключ-значение) в хеш-таблице.
+     *
+     * @return Количество элементов в хеш-таблице.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуста ли хеш-таблица.
+     *
+     * @return {@code true}, если хеш-таблица не содержит элементов, иначе {@code false}.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Передает каждую запись действию, не создавая объектов записей.
+     *
+     * @param action Действие, получающее ключ и значение.
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Действие над записью таблицы.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Ищет ячейку с указанным ненулевым ключом.
+     *
+     * @param key Ключ.
+     * @return Номер ячейки или -1, если ключа нет.
+     */
+    private int find(int key) {
+        final int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final int current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Вычисляет начальную ячейку поиска для ключа.
+     */
+    private int slot(int key) {
+        return (key * GOLDEN_RATIO) >>> shift;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая на ее место следующие записи серии,
+     * как {@link OpenAddressingMap}.
+     *
+     * @param hole Освобождаемая ячейка.
+     */
+    private void shiftBack(int hole) {
+        final int mask = keys.length - 1;
+        for (int slot = (hole + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            final int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    /**
+     * Удваивает емкость и переносит записи в новые массивы.
+     *
+     * @throws IllegalStateException Если емкость достигла максимального значения.
+     */
+    private void resize() {
+        if (keys.length >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Хеш-таблица достигла максимальной емкости.");
+        }
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity - 1);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Возвращает наименьшую степень двойки, при которой заданное количество
+     * записей не превышает коэффициент загрузки.
+     */
+    private static int capacityFor(int expectedSize) {
+        final long needed = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        if (needed > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(DEFAULT_INITIAL_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+}
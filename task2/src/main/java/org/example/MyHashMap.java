@@ -1,7 +1,49 @@
 package org.example;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.Entry<Key, Value>> {
+public class MyHashMap<Key, Value> implements MyMap<Key, Value> {
+
+    /**
+     * Способ выбора емкости таблицы и номера бакета.
+     */
+    public enum CapacityPolicy {
+        /**
+         * Емкости - простые числа из PRIME_CAPACITIES, номер бакета - остаток
+         * от деления хеш-кода на емкость. Целочисленное деление выполняется
+         * при каждой операции и для каждого узла при рехешировании.
+         */
+        PRIME,
+
+        /**
+         * Емкости - степени двойки, номер бакета - младшие биты хеш-кода,
+         * предварительно перемешанного финализатором MurmurHash3 (fmix32),
+         * чтобы в них попали и старшие биты. Вместо деления - маска.
+         */
+        POWER_OF_TWO
+    }
+
+    /**
+     * Способ рехеширования при увеличении таблицы.
+     */
+    public enum ResizeMode {
+        /**
+         * Все узлы переносятся в новую таблицу сразу, внутри вставки,
+         * вызвавшей рехеширование. Время такой вставки пропорционально размеру таблицы.
+         */
+        FULL,
+
+        /**
+         * Старая и новая таблицы существуют одновременно, каждая вставка и удаление
+         * переносит ограниченное число бакетов, а поиск идет в той таблице, где
+         * сейчас находится бакет ключа. Ни одна операция не останавливается на
+         * рехеширование всей таблицы.
+         */
+        INCREMENTAL
+    }
 
     /**
      * Массив простых чисел, используемых для выбора начальной емкости хеш-таблицы.
@@ -18,6 +60,16 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
      * Начальная емкость хеш-таблицы по умолчанию.
      */
     private static final int DEFAULT_INITIAL_CAPACITY = PRIME_CAPACITIES[0];
+
+    /**
+     * Начальная емкость таблицы с емкостями-степенями двойки.
+     */
+    private static final int DEFAULT_POWER_OF_TWO_CAPACITY = 16;
+
+    /**
+     * Наибольшая емкость таблицы с емкостями-степенями двойки.
+     */
+    private static final int MAXIMUM_POWER_OF_TWO_CAPACITY = 1 << 30;
     /**
      * Коэффициент загрузки (load factor) определяет, насколько "загруженной"
      * может быть таблица, прежде чем будет автоматически увеличена в размере
@@ -25,6 +77,30 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
      */
     private static final double LOAD_FACTOR = 0.75;
 
+    /**
+     * Наибольшее количество непустых бакетов, переносимых одной операцией
+     * при постепенном рехешировании.
+     */
+    private static final int MIGRATION_STEP = 4;
+
+    /**
+     * Наибольшее количество бакетов, просматриваемых одной операцией
+     * при постепенном рехешировании, включая пустые.
+     */
+    private static final int MIGRATION_VISITS = 64;
+
+    /**
+     * Длина цепочки, при которой бакет превращается в сбалансированное дерево.
+     */
+    static final int TREEIFY_THRESHOLD = 8;
+
+    /**
+     * Количество элементов дерева, при котором бакет снова становится цепочкой.
+     * Порог ниже TREEIFY_THRESHOLD, чтобы бакет на границе не перестраивался
+     * при каждой вставке и удалении.
+     */
+    static final int UNTREEIFY_THRESHOLD = 6;
+
     /**
      * Текущий размер хеш-таблицы, который представляет собой количество
      * элементов в таблице.
@@ -40,11 +116,58 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
      */
     int capacityIndex = 0;
 
+    /**
+     * Способ выбора емкости и номера бакета.
+     */
+    final CapacityPolicy policy;
+
+    /**
+     * Способ рехеширования при увеличении таблицы.
+     */
+    final ResizeMode resizeMode;
+
+    /**
+     * Старая таблица во время постепенного рехеширования или null.
+     * Бакеты с индексами меньше {@link #migrated} уже перенесены в новую таблицу.
+     */
+    Node[] oldTable;
+
+    /**
+     * Количество бакетов старой таблицы, уже перенесенных в новую.
+     */
+    int migrated;
+
+    /**
+     * Создает таблицу с емкостями-степенями двойки.
+     */
     public MyHashMap() {
+        this(CapacityPolicy.POWER_OF_TWO);
+    }
+
+    /**
+     * Создает таблицу с заданным способом выбора емкости.
+     *
+     * @param policy Способ выбора емкости и номера бакета.
+     */
+    public MyHashMap(CapacityPolicy policy) {
+        this(policy, ResizeMode.FULL);
+    }
+
+    /**
+     * Создает таблицу с заданными способами выбора емкости и рехеширования.
+     *
+     * @param policy     Способ выбора емкости и номера бакета.
+     * @param resizeMode Способ рехеширования при увеличении таблицы.
+     */
+    public MyHashMap(CapacityPolicy policy, ResizeMode resizeMode) {
+        this.policy = policy;
+        this.resizeMode = resizeMode;
     }
 
     /**
      * Получает значение, связанное с указанным ключом, из хеш-таблицы.
+     * Во время постепенного рехеширования ключ ищется в старой таблице,
+     * если его бакет еще не перенесен, иначе в новой.
      *
      * @param key  Ключ, по которому производится поиск значения.
      * @return     Значение, связанное с указанным ключом, или null, если такого ключа нет
@@ -57,7 +180,9 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
         }
 
         final int hash = key.hashCode();
-        final Node bucket = table[index(hash)];
+        final Node bucket = oldTable != null && index(hash, oldTable.length) >= migrated
+                ? oldTable[index(hash, oldTable.length)]
+                : table[index(hash)];
 
         if (bucket == null) {
             return null;
@@ -66,33 +191,233 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
         }
     }
 
+    /**
+     * Проверяет, содержит ли хеш-таблица указанный ключ. В отличие от реализации
+     * по умолчанию, ищет ключ один раз и учитывает ключи со значением null.
+     *
+     * @param key Ключ, который требуется проверить.
+     * @return {@code true}, если ключ содержится в хеш-таблице.
+     */
+    @Override
+    public boolean containsKey(Key key) {
+        if (table == null) {
+            return false;
+        }
+
+        final int hash = key.hashCode();
+        final Node bucket = oldTable != null && index(hash, oldTable.length) >= migrated
+                ? oldTable[index(hash, oldTable.length)]
+                : table[index(hash)];
+        return bucket != null && bucket.contains(hash, key);
+    }
+
     /**
      * Вставляет элемент в хеш-таблицу или обновляет значение для существующего ключа.
      * Если текущий размер хеш-таблицы превышает установленный коэффициент загрузки,
-     * выполняется операция рехеширования для увеличения её размера.
+     * выполняется операция рехеширования для увеличения её размера: сразу целиком
+     * или, в режиме {@link ResizeMode#INCREMENTAL}, по нескольку бакетов за операцию.
      *
      * @param key   Ключ, который следует вставить или обновить.
      * @param value Значение, связанное с указанным ключом.
      */
     @Override
     public void put(Key key, Value value) {
-        if (table == null || size >= LOAD_FACTOR * capacity()) {
-            table = resize();
-        }
+        prepareInsert();
 
         final int hash = key.hashCode();
-        final int index = index(hash);
+        Node[] buckets = table;
+        int index = index(hash);
+        if (oldTable != null && index(hash, oldTable.length) >= migrated) {
+            // Бакет еще не перенесен: ключ обновляется или добавляется в старой таблице
+            buckets = oldTable;
+            index = index(hash, oldTable.length);
+        }
 
-        if (table[index] == null) {
-            table[index] = new Node(hash, key, value);
+        if (buckets[index] == null) {
+            buckets[index] = new Node(hash, key, value);
             size++;
             return;
         }
 
-        table[index].put(hash, key, value);
+        final int previousSize = size;
+        buckets[index].put(hash, key, value);
+        if (size != previousSize && !(buckets[index] instanceof TreeBin)
+                && chainLength(buckets[index]) >= TREEIFY_THRESHOLD) {
+            treeify(buckets, index);
+        }
     }
 
 
+    /**
+     * Связывает ключ со значением, если ключа нет, за один поиск.
+     *
+     * @param key   Ключ.
+     * @param value Значение, которое следует связать с ключом.
+     * @return Прежнее значение ключа или null, если ключа не было.
+     */
+    @Override
+    public Value putIfAbsent(Key key, Value value) {
+        return remap(key, (k, current) -> current != null ? current : value, true, true, false);
+    }
+
+    /**
+     * Вычисляет значение отсутствующего ключа за один поиск.
+     *
+     * @param key             Ключ.
+     * @param mappingFunction Функция, вычисляющая значение по ключу.
+     * @return Текущее (существующее или вычисленное) значение ключа или null.
+     */
+    @Override
+    public Value computeIfAbsent(Key key, Function<? super Key, ? extends Value> mappingFunction) {
+        return remap(key, (k, current) -> current != null ? current : mappingFunction.apply(k), true, false,
+                false);
+    }
+
+    /**
+     * Вычисляет новое значение существующего ключа за один поиск.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null, если ключа нет.
+     */
+    @Override
+    public Value computeIfPresent(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        return remap(key, (k, current) -> current != null ? remappingFunction.apply(k, current) : null, false, false,
+                false);
+    }
+
+    /**
+     * Вычисляет новое значение ключа по старому за один поиск.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null.
+     */
+    @Override
+    public Value compute(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        return remap(key, remappingFunction, true, false, true);
+    }
+
+    /**
+     * Добавляет значение или объединяет его со старым за один поиск.
+     *
+     * @param key               Ключ.
+     * @param value             Значение, добавляемое или объединяемое со старым.
+     * @param remappingFunction Функция, объединяющая старое значение с заданным.
+     * @return Новое значение ключа или null, если запись удалена.
+     * @throws NullPointerException Если value равно null.
+     */
+    @Override
+    public Value merge(Key key, Value value,
+                       BiFunction<? super Value, ? super Value, ? extends Value> remappingFunction) {
+        Objects.requireNonNull(value);
+        return remap(key, (k, current) -> current == null ? value : remappingFunction.apply(current, value),
+                true, false, false);
+    }
+
+    /**
+     * Общая часть putIfAbsent, compute* и merge: хеш-код вычисляется один раз,
+     * бакет обходится один раз, и найденный узел (или место для нового узла
+     * и предшествующий узел для удаления) используется без повторного поиска.
+     *
+     * @param key       Ключ.
+     * @param function  Функция от ключа и текущего значения (null, если ключа нет),
+     *                  возвращающая новое значение; null удаляет запись.
+     * @param insert    Можно ли добавлять отсутствующий ключ.
+     * @param returnOld Вернуть прежнее значение вместо нового.
+     * @param removeNull Удалять ли запись со значением null, если функция вернула
+     *                   null: так поступает только compute, а для остальных методов
+     *                   значение null равносильно отсутствию ключа.
+     * @return Новое или прежнее значение ключа.
+     */
+    private Value remap(Key key, BiFunction<? super Key, ? super Value, ? extends Value> function,
+                        boolean insert, boolean returnOld, boolean removeNull) {
+        if (table == null) {
+            if (!insert) {
+                return null;
+            }
+        } else {
+            migrateStep();
+        }
+
+        final int hash = key.hashCode();
+        Node[] buckets = table;
+        int index = 0;
+        if (buckets != null) {
+            index = index(hash);
+            if (oldTable != null && index(hash, oldTable.length) >= migrated) {
+                buckets = oldTable;
+                index = index(hash, oldTable.length);
+            }
+        }
+
+        Node head = buckets != null ? buckets[index] : null;
+        Node node = null;
+        // Узел перед найденным или, если ключа нет, последний узел цепочки
+        Node previous = null;
+        if (head instanceof TreeBin) {
+            node = ((TreeBin) head).find(hash, key);
+        } else {
+            for (Node current = head; current != null; previous = current, current = current.next) {
+                if (current.matches(hash, key)) {
+                    node = current;
+                    break;
+                }
+            }
+        }
+
+        final Value oldValue = node != null ? node.value : null;
+        final Value newValue = function.apply(key, oldValue);
+        if (node != null) {
+            if (newValue != null) {
+                node.value = newValue;
+            } else if (oldValue == null && !removeNull) {
+                return null;
+            } else if (head instanceof TreeBin) {
+                final TreeBin bin = (TreeBin) head;
+                bin.remove((TreeNode) node);
+                size--;
+                if (bin.count <= UNTREEIFY_THRESHOLD) {
+                    untreeify(buckets, index);
+                }
+            } else {
+                if (previous == null) {
+                    buckets[index] = node.next;
+                } else {
+                    previous.next = node.next;
+                }
+                size--;
+            }
+        } else if (newValue != null && insert) {
+            if (grow()) {
+                // Таблица создана или расширена: место вставки ищется заново
+                buckets = table;
+                index = index(hash);
+                if (oldTable != null && index(hash, oldTable.length) >= migrated) {
+                    buckets = oldTable;
+                    index = index(hash, oldTable.length);
+                }
+                head = buckets[index];
+                previous = head instanceof TreeBin ? null : head;
+                while (previous != null && previous.next != null) {
+                    previous = previous.next;
+                }
+            }
+            if (head instanceof TreeBin) {
+                ((TreeBin) head).insert(new TreeNode(hash, key, newValue));
+            } else if (previous == null) {
+                buckets[index] = new Node(hash, key, newValue);
+            } else {
+                previous.next = new Node(hash, key, newValue);
+                if (chainLength(head) >= TREEIFY_THRESHOLD) {
+                    treeify(buckets, index);
+                }
+            }
+            size++;
+        }
+        return returnOld ? oldValue : newValue;
+    }
+
     /**
      * Удаляет элемент из хеш-таблицы по указанному ключу.
      *
@@ -105,17 +430,46 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
         if (table == null) {
             return null;
         }
+        migrateStep();
 
         final int hash = key.hashCode();
-        final int index = index(hash);
-        Node current = table[index];
+        if (oldTable != null && index(hash, oldTable.length) >= migrated) {
+            return remove(oldTable, index(hash, oldTable.length), hash, key);
+        }
+        return remove(table, index(hash), hash, key);
+    }
+
+    /**
+     * Удаляет узел с указанным ключом из цепочки бакета.
+     *
+     * @param buckets Таблица, в которой находится бакет.
+     * @param index   Индекс бакета.
+     * @param hash    Хеш-код ключа.
+     * @param key     Ключ.
+     * @return Значение удаленного узла или null, если ключ не найден.
+     */
+    private Value remove(Node[] buckets, int index, int hash, Key key) {
+        Node current = buckets[index];
 
         if (current == null) {
             return null;
         }
 
+        if (current instanceof TreeBin) {
+            final TreeBin bin = (TreeBin) current;
+            final TreeNode removed = bin.remove(hash, key);
+            if (removed == null) {
+                return null;
+            }
+            size--;
+            if (bin.count <= UNTREEIFY_THRESHOLD) {
+                untreeify(buckets, index);
+            }
+            return removed.value;
+        }
+
         if (current.matches(hash, key)) {
-            table[index] = current.next;
+            buckets[index] = current.next;
             size--;
             return current.value;
         }
@@ -124,7 +478,8 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
             current = current.next;
         }
 
-        if (!current.next.isLast()) {
+        // Узел перед найденным; найденный может быть и последним в цепочке
+        if (!current.isLast()) {
             size--;
             Value previous = current.next.value;
             current.next = current.next.next;
@@ -134,6 +489,81 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
         return null;
     }
 
+    /**
+     * Готовит таблицу к возможной вставке: создает ее, расширяет при превышении
+     * коэффициента загрузки и выполняет шаг постепенного рехеширования.
+     */
+    private void prepareInsert() {
+        grow();
+        migrateStep();
+    }
+
+    /**
+     * Создает таблицу или расширяет ее при превышении коэффициента загрузки.
+     *
+     * @return {@code true}, если таблица создана, расширена или начато
+     *         постепенное рехеширование.
+     */
+    private boolean grow() {
+        if (table != null && size < LOAD_FACTOR * capacity()) {
+            return false;
+        }
+        if (resizeMode == ResizeMode.INCREMENTAL && table != null) {
+            startMigration();
+        } else {
+            table = resize();
+        }
+        return true;
+    }
+
+    /**
+     * Начинает постепенное рехеширование: текущая таблица становится старой,
+     * а новые элементы попадают в таблицу увеличенной емкости. Если предыдущий
+     * перенос еще не закончен, он сначала завершается.
+     */
+    private void startMigration() {
+        while (oldTable != null) {
+            migrateStep();
+        }
+        final int newCapacity = nextCapacity();
+        oldTable = table;
+        table = newTable(newCapacity);
+        migrated = 0;
+    }
+
+    /**
+     * Переносит из старой таблицы в новую не больше {@value #MIGRATION_STEP}
+     * непустых бакетов, просматривая не больше {@value #MIGRATION_VISITS}
+     * бакетов, чтобы работа одной операции была ограничена. Перенос успевает
+     * закончиться до следующего рехеширования: между ними выполняется не меньше
+     * 0.75 * емкость вставок, а старая таблица вдвое меньше новой.
+     */
+    private void migrateStep() {
+        if (oldTable == null) {
+            return;
+        }
+        int moved = 0;
+        int visited = 0;
+        while (migrated < oldTable.length && moved < MIGRATION_STEP && visited < MIGRATION_VISITS) {
+            Node node = oldTable[migrated];
+            if (node != null) {
+                oldTable[migrated] = null;
+                while (node != null) {
+                    final Node current = node;
+                    node = node.next;
+                    transfer(current, table);
+                }
+                moved++;
+            }
+            migrated++;
+            visited++;
+        }
+        if (migrated == oldTable.length) {
+            oldTable = null;
+            migrated = 0;
+        }
+    }
+
     /**
      * Возвращает количество элементов (пар ключ-значение) в хеш-таблице.
      *
@@ -163,41 +593,96 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
      * @return Текущая емкость хеш-таблицы или емкость по умолчанию, если таблица не инициализирована.
      */
     private int capacity() {
-
-        return table != null ? table.length : DEFAULT_INITIAL_CAPACITY;
+        if (table != null) {
+            return table.length;
+        }
+        return policy == CapacityPolicy.PRIME ? DEFAULT_INITIAL_CAPACITY : DEFAULT_POWER_OF_TWO_CAPACITY;
     }
 
     /**
      * Вычисляет и возвращает индекс бакета в хеш-таблице для указанного хеш-кода элемента.
-     * Использует остаток от деления хеш-кода на текущую емкость хеш-таблицы.
      *
      * @param hash Хеш-код элемента.
      * @return Индекс бакета в хеш-таблице.
      */
     int index(int hash) {
 
-        return Math.floorMod(hash, capacity());
+        return index(hash, capacity());
     }
 
     /**
-     * Увеличивает размер хеш-таблицы, рехешируя ее элементы в новую таблицу
-     * с увеличенной емкостью, выбранной из массива простых чисел PRIME_CAPACITIES.
-     * Если текущая емкость достигла максимального значения, бросает исключение.
+     * Вычисляет индекс бакета для таблицы заданной емкости: остаток от деления
+     * для простых емкостей или маску перемешанного хеш-кода для степеней двойки.
+     *
+     * @param hash     Хеш-код элемента.
+     * @param capacity Емкость таблицы.
+     * @return Индекс бакета.
+     */
+    private int index(int hash, int capacity) {
+        if (policy == CapacityPolicy.PRIME) {
+            return Math.floorMod(hash, capacity);
+        }
+        return mix(hash) & (capacity - 1);
+    }
+
+    /**
+     * Перемешивает биты хеш-кода финализатором MurmurHash3 (fmix32), чтобы
+     * каждый бит результата зависел от всех битов исходного хеш-кода.
+     *
+     * @param hash Хеш-код.
+     * @return Перемешанный хеш-код.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Возвращает емкость, до которой увеличивается таблица при рехешировании.
      *
-     * @return Новая хеш-таблица с увеличенной емкостью.
      * @throws IllegalStateException Если текущая емкость достигла максимального значения.
      */
-    private Node[] resize() {
-        if (capacityIndex >= PRIME_CAPACITIES.length) {
-            throw new IllegalStateException("Хеш-таблица достигла максимальной емкости.");
+    private int nextCapacity() {
+        if (policy == CapacityPolicy.POWER_OF_TWO) {
+            if (table == null) {
+                return DEFAULT_POWER_OF_TWO_CAPACITY;
+            }
+            if (table.length >= MAXIMUM_POWER_OF_TWO_CAPACITY) {
+                throw new IllegalStateException("Хеш-таблица достигла максимальной емкости.");
+            }
+            return table.length << 1;
         }
 
+        if (capacityIndex >= PRIME_CAPACITIES.length - 1 && table != null) {
+            throw new IllegalStateException("Хеш-таблица достигла максимальной емкости.");
+        }
         if (table != null) {
             capacityIndex++;
         }
+        return PRIME_CAPACITIES[capacityIndex];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node[] newTable(int capacity) {
+        return (Node[]) new MyHashMap<?, ?>.Node[capacity];
+    }
 
-        final int newCapacity = PRIME_CAPACITIES[capacityIndex];
-        final Node[] newTable = (Node[]) new MyHashMap<?, ?>.Node[newCapacity];
+    /**
+     * Увеличивает размер хеш-таблицы, рехешируя ее элементы в новую таблицу
+     * с увеличенной емкостью: следующим простым числом из PRIME_CAPACITIES
+     * или следующей степенью двойки, в зависимости от способа выбора емкости.
+     * Если текущая емкость достигла максимального значения, бросает исключение.
+     *
+     * @return Новая хеш-таблица с увеличенной емкостью.
+     * @throws IllegalStateException Если текущая емкость достигла максимального значения.
+     */
+    private Node[] resize() {
+        final int newCapacity = nextCapacity();
+        final Node[] newTable = newTable(newCapacity);
 
         if (table == null) {
             return newTable;
@@ -208,16 +693,100 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
             while (node != null) {
                 final Node current = node;
                 node = node.next;
-
-                final int index = Math.floorMod(current.hash, newCapacity);
-                current.next = newTable[index];
-                newTable[index] = current;
+                transfer(current, newTable);
             }
         }
 
         return newTable;
     }
 
+    /**
+     * Переносит узел в бакет новой таблицы при рехешировании. Заголовок
+     * дерева пропускается: переносятся только узлы из его списка. В дерево
+     * узел добавляется как узел дерева, в цепочку - в начало, и слишком
+     * длинная цепочка превращается в дерево.
+     *
+     * @param node   Переносимый узел.
+     * @param target Новая таблица.
+     */
+    private void transfer(Node node, Node[] target) {
+        if (node instanceof TreeBin) {
+            return;
+        }
+        final int index = index(node.hash, target.length);
+        if (target[index] instanceof TreeBin) {
+            ((TreeBin) target[index]).insert(asTreeNode(node));
+            return;
+        }
+        node.next = target[index];
+        target[index] = node;
+        if (chainLength(node) >= TREEIFY_THRESHOLD) {
+            treeify(target, index);
+        }
+    }
+
+    /**
+     * Считает узлы цепочки, но не больше TREEIFY_THRESHOLD.
+     *
+     * @param head Первый узел цепочки.
+     * @return Длина цепочки или TREEIFY_THRESHOLD, если цепочка длиннее.
+     */
+    private int chainLength(Node head) {
+        int length = 0;
+        for (Node node = head; node != null && length < TREEIFY_THRESHOLD; node = node.next) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Превращает цепочку бакета в дерево.
+     *
+     * @param buckets Таблица, в которой находится бакет.
+     * @param index   Индекс бакета.
+     */
+    private void treeify(Node[] buckets, int index) {
+        final TreeBin bin = new TreeBin();
+        Node node = buckets[index];
+        while (node != null) {
+            final Node current = node;
+            node = node.next;
+            bin.insert(asTreeNode(current));
+        }
+        buckets[index] = bin;
+    }
+
+    /**
+     * Заменяет дерево бакета цепочкой обычных узлов в порядке списка дерева.
+     * Узлы дерева не переиспользуются, чтобы в цепочке не осталось ссылок
+     * на бывших соседей по дереву.
+     *
+     * @param buckets Таблица, в которой находится бакет.
+     * @param index   Индекс бакета с деревом.
+     */
+    private void untreeify(Node[] buckets, int index) {
+        Node head = null;
+        Node last = null;
+        for (Node node = buckets[index].next; node != null; node = node.next) {
+            final Node copy = new Node(node.hash, node.key, node.value);
+            if (last == null) {
+                head = copy;
+            } else {
+                last.next = copy;
+            }
+            last = copy;
+        }
+        buckets[index] = head;
+    }
+
+    /**
+     * Возвращает узел дерева с тем же ключом и значением: сам узел, если он
+     * уже им является, иначе новый узел.
+     */
+    private TreeNode asTreeNode(Node node) {
+        return node instanceof TreeNode ? (TreeNode) node : new TreeNode(node.hash, node.key, node.value);
+    }
+
     /**
      * Возвращает итератор для перебора элементов в хеш-таблице.
      * Итератор реализован в виде внутреннего класса EntryIterator.
@@ -235,14 +804,20 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
      */
     private class EntryIterator implements Iterator<Entry<Key, Value>> {
         /**
-         * Индекс текущего бакета в хеш-таблице.
+         * Обходимая таблица: во время постепенного рехеширования сначала
+         * еще не перенесенные бакеты старой таблицы, затем новая таблица.
+         */
+        private Node[] buckets = oldTable != null ? oldTable : table;
+
+        /**
+         * Индекс следующего бакета в обходимой таблице.
          */
-        private int index = 0;
+        private int index = oldTable != null ? migrated : 0;
 
         /**
          * Текущий узел (Node) в текущем бакете хеш-таблицы.
          */
-        private Node currentNode = table[0];
+        private Node currentNode;
 
         {
             findNextNonNullNode();
@@ -253,9 +828,19 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
          * Устанавливает index и currentNode в соответствии с найденным узлом.
          */
         private void findNextNonNullNode() {
-            while (currentNode == null && index < table.length - 1) {
-                index++;
-                currentNode = table[index];
+            while (currentNode == null && buckets != null) {
+                if (index < buckets.length) {
+                    currentNode = buckets[index++];
+                    if (currentNode instanceof TreeBin) {
+                        // Заголовок дерева не является записью: обходится его список узлов
+                        currentNode = currentNode.next;
+                    }
+                } else if (buckets != table) {
+                    buckets = table;
+                    index = 0;
+                } else {
+                    buckets = null;
+                }
             }
         }
 
@@ -267,7 +852,7 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
          */
         @Override
         public boolean hasNext() {
-            return !(index == table.length - 1 && currentNode == null);
+            return currentNode != null;
         }
 
         /**
@@ -275,14 +860,16 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
          * Возвращает текущий узел и сдвигает указатель currentNode на следующий узел.
          *
          * @return Текущий узел (Entry) в итераторе.
+         * @throws NoSuchElementException Если элементов больше нет.
          */
         @Override
         public Entry<Key, Value> next() {
             final Node current = currentNode;
-
-            if (currentNode != null) {
-                currentNode = currentNode.next;
+            if (current == null) {
+                throw new NoSuchElementException();
             }
+
+            currentNode = currentNode.next;
             findNextNonNullNode();
 
             return current;
@@ -344,6 +931,18 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
             return null;
         }
 
+        /**
+         * Проверяет, есть ли в цепочке узел с указанным хеш-кодом и ключом.
+         *
+         * @param hash Хеш-код ключа.
+         * @param key  Ключ для поиска.
+         * @return {@code true}, если узел с таким ключом найден.
+         */
+        boolean contains(int hash, Key key) {
+            Node node = findOrGetLast(hash, key);
+            return !node.isLast() || node.matches(hash, key);
+        }
+
         /**
          * Вставляет новый узел с указанным хеш-кодом, ключом и значением
          * в текущий узел или обновляет значение для существующего ключа.
@@ -459,4 +1058,313 @@ public class MyHashMap<Key, Value> implements MyMap<Key, Value>, Iterable<MyMap.
             return hash;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Узел сбалансированного дерева бакета. Кроме ссылок на поддеревья, узел
+     * входит в двусвязный список всех узлов бакета, который начинается
+     * с заголовка {@link TreeBin}: по этому списку идут итератор и рехеширование.
+     */
+    class TreeNode extends Node {
+        /**
+         * Левое поддерево: узлы, меньшие текущего.
+         */
+        TreeNode left;
+
+        /**
+         * Правое поддерево: узлы, большие текущего.
+         */
+        TreeNode right;
+
+        /**
+         * Предыдущий узел в списке бакета; у первого узла - заголовок дерева.
+         */
+        Node prev;
+
+        /**
+         * Высота поддерева с корнем в этом узле.
+         */
+        int height;
+
+        /**
+         * Порядковый номер вставки: разрешает порядок узлов с одинаковыми
+         * хеш-кодами и несравнимыми ключами.
+         */
+        long order;
+
+        TreeNode(int hash, Key key, Value value) {
+            super(hash, key, value);
+        }
+    }
+
+    /**
+     * Заголовок бакета, превращенного в AVL-дерево. Узлы упорядочены по хеш-коду,
+     * затем, если ключи одного класса и реализуют {@link Comparable}, по compareTo,
+     * а в остальном - по порядку вставки. Поиск, вставка и удаление выполняются
+     * за O(log n) даже при совпадающих хеш-кодах, если ключи сравнимы.
+     *
+     * <p>Поле {@code next} заголовка указывает на первый узел списка бакета,
+     * так что заголовок встраивается в обычный обход цепочки.
+     */
+    class TreeBin extends Node {
+        /**
+         * Корень дерева.
+         */
+        TreeNode root;
+
+        /**
+         * Количество узлов в дереве.
+         */
+        int count;
+
+        /**
+         * Счетчик порядковых номеров вставки.
+         */
+        private long sequence;
+
+        TreeBin() {
+            super(0, null, null);
+        }
+
+        /**
+         * Получает значение по ключу поиском в дереве.
+         */
+        @Override
+        Value get(int hash, Key key) {
+            final TreeNode node = find(root, hash, key);
+            return node != null ? node.value : null;
+        }
+
+        /**
+         * Проверяет наличие ключа поиском в дереве.
+         */
+        @Override
+        boolean contains(int hash, Key key) {
+            return find(root, hash, key) != null;
+        }
+
+        /**
+         * Обновляет значение существующего ключа или добавляет в дерево новый узел.
+         */
+        @Override
+        void put(int hash, Key key, Value value) {
+            final TreeNode node = find(root, hash, key);
+            if (node != null) {
+                node.value = value;
+                return;
+            }
+            insert(new TreeNode(hash, key, value));
+            size++;
+        }
+
+        /**
+         * Добавляет узел, ключа которого еще нет в дереве, в дерево и в начало списка.
+         *
+         * @param node Добавляемый узел.
+         */
+        void insert(TreeNode node) {
+            node.left = null;
+            node.right = null;
+            node.height = 1;
+            node.order = sequence++;
+            root = insert(root, node);
+
+            node.prev = this;
+            node.next = next;
+            if (next != null) {
+                ((TreeNode) next).prev = node;
+            }
+            next = node;
+            count++;
+        }
+
+        /**
+         * Удаляет узел с указанным ключом из дерева и из списка.
+         *
+         * @return Удаленный узел или null, если ключ не найден.
+         */
+        TreeNode remove(int hash, Key key) {
+            final TreeNode node = find(root, hash, key);
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        /**
+         * Ищет узел с указанным ключом.
+         *
+         * @return Узел или null, если ключ не найден.
+         */
+        TreeNode find(int hash, Key key) {
+            return find(root, hash, key);
+        }
+
+        /**
+         * Удаляет найденный ранее узел из дерева и из списка.
+         *
+         * @param node Узел этого дерева.
+         */
+        void remove(TreeNode node) {
+            root = delete(root, node);
+
+            node.prev.next = node.next;
+            if (node.next != null) {
+                ((TreeNode) node.next).prev = node.prev;
+            }
+            count--;
+        }
+
+        /**
+         * Ищет узел с ключом. Если хеш-коды совпадают, а ключи несравнимы,
+         * искать приходится в обоих поддеревьях.
+         */
+        private TreeNode find(TreeNode node, int hash, Key key) {
+            while (node != null) {
+                if (hash != node.hash) {
+                    node = hash < node.hash ? node.left : node.right;
+                    continue;
+                }
+                if (node.key.equals(key)) {
+                    return node;
+                }
+                final int comparison = compareKeys(key, node.key);
+                if (comparison != 0) {
+                    node = comparison < 0 ? node.left : node.right;
+                    continue;
+                }
+                final TreeNode found = find(node.right, hash, key);
+                if (found != null) {
+                    return found;
+                }
+                node = node.left;
+            }
+            return null;
+        }
+
+        private TreeNode insert(TreeNode node, TreeNode inserted) {
+            if (node == null) {
+                return inserted;
+            }
+            if (compareNodes(inserted, node) < 0) {
+                node.left = insert(node.left, inserted);
+            } else {
+                node.right = insert(node.right, inserted);
+            }
+            return balance(node);
+        }
+
+        /**
+         * Удаляет из поддерева заданный узел. Узел с двумя поддеревьями
+         * заменяется своим преемником, а не копированием ключа и значения,
+         * чтобы выданные итератором записи оставались действительными.
+         */
+        private TreeNode delete(TreeNode node, TreeNode deleted) {
+            final int comparison = compareNodes(deleted, node);
+            if (comparison < 0) {
+                node.left = delete(node.left, deleted);
+            } else if (comparison > 0) {
+                node.right = delete(node.right, deleted);
+            } else {
+                if (node.left == null) {
+                    return node.right;
+                }
+                if (node.right == null) {
+                    return node.left;
+                }
+                TreeNode successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                successor.right = deleteMin(node.right);
+                successor.left = node.left;
+                return balance(successor);
+            }
+            return balance(node);
+        }
+
+        private TreeNode deleteMin(TreeNode node) {
+            if (node.left == null) {
+                return node.right;
+            }
+            node.left = deleteMin(node.left);
+            return balance(node);
+        }
+
+        /**
+         * Полный порядок узлов: хеш-код, compareTo для сравнимых ключей, порядок вставки.
+         */
+        private int compareNodes(TreeNode a, TreeNode b) {
+            if (a.hash != b.hash) {
+                return a.hash < b.hash ? -1 : 1;
+            }
+            final int comparison = compareKeys(a.key, b.key);
+            return comparison != 0 ? comparison : Long.compare(a.order, b.order);
+        }
+
+        /**
+         * Восстанавливает высоту узла и, если поддеревья различаются по высоте
+         * больше чем на 1, выполняет один или два поворота.
+         */
+        private TreeNode balance(TreeNode node) {
+            final int difference = height(node.left) - height(node.right);
+            if (difference > 1) {
+                if (height(node.left.left) < height(node.left.right)) {
+                    node.left = rotateLeft(node.left);
+                }
+                return rotateRight(node);
+            }
+            if (difference < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+                return rotateLeft(node);
+            }
+            updateHeight(node);
+            return node;
+        }
+
+        private TreeNode rotateLeft(TreeNode node) {
+            final TreeNode pivot = node.right;
+            node.right = pivot.left;
+            pivot.left = node;
+            updateHeight(node);
+            updateHeight(pivot);
+            return pivot;
+        }
+
+        private TreeNode rotateRight(TreeNode node) {
+            final TreeNode pivot = node.left;
+            node.left = pivot.right;
+            pivot.right = node;
+            updateHeight(node);
+            updateHeight(pivot);
+            return pivot;
+        }
+
+        private int height(TreeNode node) {
+            return node != null ? node.height : 0;
+        }
+
+        private void updateHeight(TreeNode node) {
+            node.height = Math.max(height(node.left), height(node.right)) + 1;
+        }
+    }
+
+    /**
+     * Сравнивает ключи через compareTo, если они одного класса и реализуют
+     * {@link Comparable}.
+     *
+     * @return Результат compareTo или 0, если ключи несравнимы.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKeys(Object a, Object b) {
+        if (a.getClass() != b.getClass() || !(a instanceof Comparable)) {
+            return 0;
+        }
+        try {
+            return ((Comparable) a).compareTo(b);
+        } catch (ClassCastException e) {
+            return 0;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.example;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 /**
  * Интерфейс представляет собой простую хеш-таблицу, которая хранит пары ключ-значение.
+ * Записи таблицы можно перебрать итератором.
  */
-public interface MyMap<Key, Value> {
+public interface MyMap<Key, Value> extends Iterable<MyMap.Entry<Key, Value>> {
 
     /**
      * Возвращает значение, связанное с указанным ключом.
@@ -52,6 +57,126 @@ public interface MyMap<Key, Value> {
      */
     boolean isEmpty();
 
+    /**
+     * Возвращает значение, связанное с указанным ключом, или заданное значение,
+     * если ключа нет.
+     *
+     * @param key          Ключ, по которому производится поиск значения.
+     * @param defaultValue Значение, возвращаемое при отсутствии ключа.
+     * @return Значение ключа или defaultValue.
+     */
+    default Value getOrDefault(Key key, Value defaultValue) {
+        final Value value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Связывает ключ со значением, если ключа нет или его значение равно null.
+     *
+     * <p>Методы putIfAbsent, computeIfAbsent, computeIfPresent, compute и merge
+     * ведут себя так же, как одноименные методы {@link java.util.Map}: значение
+     * null означает отсутствие записи, а функция, вернувшая null, удаляет ее.
+     * Реализации по умолчанию выполняют поиск ключа дважды, через {@link #get}
+     * и {@link #put} или {@link #remove}; реализации таблиц переопределяют их,
+     * чтобы обходиться одним поиском. Функция не должна изменять таблицу.
+     *
+     * @param key   Ключ.
+     * @param value Значение, которое следует связать с ключом.
+     * @return Прежнее значение ключа или null, если ключа не было.
+     */
+    default Value putIfAbsent(Key key, Value value) {
+        final Value current = get(key);
+        if (current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    /**
+     * Если ключа нет, вычисляет его значение функцией и, если оно не null,
+     * добавляет запись. Подходит для запоминания результатов вычислений.
+     *
+     * @param key             Ключ.
+     * @param mappingFunction Функция, вычисляющая значение по ключу.
+     * @return Текущее (существующее или вычисленное) значение ключа или null.
+     */
+    default Value computeIfAbsent(Key key, Function<? super Key, ? extends Value> mappingFunction) {
+        final Value current = get(key);
+        if (current != null) {
+            return current;
+        }
+        final Value value = mappingFunction.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Если ключ есть, вычисляет его новое значение по старому. Если функция
+     * вернула null, запись удаляется.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null, если ключа нет.
+     */
+    default Value computeIfPresent(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        final Value current = get(key);
+        if (current == null) {
+            return null;
+        }
+        final Value value = remappingFunction.apply(key, current);
+        if (value == null) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Вычисляет новое значение ключа по старому, которое равно null, если ключа нет.
+     * Если функция вернула null, запись удаляется или не добавляется.
+     *
+     * @param key               Ключ.
+     * @param remappingFunction Функция, вычисляющая новое значение по ключу и старому значению.
+     * @return Новое значение ключа или null.
+     */
+    default Value compute(Key key, BiFunction<? super Key, ? super Value, ? extends Value> remappingFunction) {
+        final Value current = get(key);
+        final Value value = remappingFunction.apply(key, current);
+        if (value != null) {
+            put(key, value);
+        } else if (current != null || containsKey(key)) {
+            remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Если ключа нет, связывает его с заданным значением, иначе объединяет
+     * старое значение с заданным функцией. Если функция вернула null, запись
+     * удаляется. Например, {@code merge(word, 1, Integer::sum)} считает частоты.
+     *
+     * @param key               Ключ.
+     * @param value             Значение, добавляемое или объединяемое со старым.
+     * @param remappingFunction Функция, объединяющая старое значение с заданным.
+     * @return Новое значение ключа или null, если запись удалена.
+     * @throws NullPointerException Если value равно null.
+     */
+    default Value merge(Key key, Value value,
+                        BiFunction<? super Value, ? super Value, ? extends Value> remappingFunction) {
+        Objects.requireNonNull(value);
+        final Value current = get(key);
+        final Value merged = current == null ? value : remappingFunction.apply(current, value);
+        if (merged == null) {
+            remove(key);
+        } else {
+            put(key, merged);
+        }
+        return merged;
+    }
+
     /**
      * Интерфейс представляет собой запись в хеш-таблице, содержащую ключ и значение.
      */
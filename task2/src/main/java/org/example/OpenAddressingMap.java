@@ -0,0 +1,352 @@
+package org.example;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Хеш-таблица с открытой адресацией и линейным пробированием. В отличие от
+ * {@link MyHashMap}, записи не оборачиваются в узлы: ключи, значения и хеш-коды
+ * лежат в трех параллельных массивах, поэтому на запись не тратится отдельный
+ * объект, а поиск идет по соседним ячейкам памяти без переходов по ссылкам.
+ *
+ * <p>Емкость - степень двойки, номер ячейки получается умножением хеш-кода на
+ * константу золотого сечения и взятием старших битов (фибоначчиево хеширование).
+ * Удаление выполняется обратным сдвигом: следующие записи той же серии
+ * передвигаются в освободившуюся ячейку, так что «надгробия» не нужны
+ * и длина поиска после удалений не растет.
+ *
+ * <p>Ключи {@code null} не поддерживаются, как и в {@link MyHashMap}.
+ */
+public class OpenAddressingMap<Key, Value> implements MyMap<Key, Value> {
+
+    /**
+     * Начальная емкость хеш-таблицы по умолчанию.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * Наибольшая емкость: размер массива Java ограничен 2^31 - 1.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Коэффициент загрузки. При линейном пробировании средняя длина поиска
+     * быстро растет после заполнения примерно на 3/4, поэтому порог ниже,
+     * чем был бы у цепочек.
+     */
+    private static final double LOAD_FACTOR = 0.7;
+
+    /**
+     * Множитель фибоначчиева хеширования: 2^32 / золотое сечение.
+     */
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    /**
+     * Ключи записей; {@code null} означает свободную ячейку.
+     */
+    Object[] keys;
+
+    /**
+     * Значения записей в тех же ячейках, что и ключи.
+     */
+    Object[] values;
+
+    /**
+     * Хеш-коды ключей, чтобы не вызывать equals при несовпадении хеш-кодов
+     * и не вычислять hashCode заново при расширении.
+     */
+    int[] hashes;
+
+    /**
+     * Количество записей в таблице.
+     */
+    int size;
+
+    /**
+     * Сдвиг, оставляющий от произведения хеш-кода на множитель номер ячейки.
+     */
+    private int shift;
+
+    /**
+     * Количество записей, при котором таблица расширяется.
+     */
+    private int threshold;
+
+    public OpenAddressingMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Создает таблицу, вмещающую заданное количество записей без расширения.
+     *
+     * @param expectedSize Ожидаемое количество записей.
+     */
+    public OpenAddressingMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Получает значение, связанное с указанным ключом.
+     *
+     * @param key Ключ, по которому производится поиск значения.
+     * @return Значение, связанное с указанным ключом, или null, если такого ключа нет.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Value get(Key key) {
+        final int slot = find(key, key.hashCode());
+        return slot >= 0 ? (Value) values[slot] : null;
+    }
+
+    /**
+     * Проверяет, содержит ли хеш-таблица указанный ключ. В отличие от
+     * реализации по умолчанию, учитывает и ключи со значением null.
+     *
+     * @param key Ключ, который требуется проверить.
+     * @return {@code true}, если ключ содержится в хеш-таблице.
+     */
+    @Override
+    public boolean containsKey(Key key) {
+        return find(key, key.hashCode()) >= 0;
+    }
+
+    /**
+     * Вставляет элемент в хеш-таблицу или обновляет значение для существующего ключа.
+     *
+     * @param key   Ключ, который следует вставить или обновить.
+     * @param value Значение, связанное с указанным ключом.
+     */
+    @Override
+    public void put(Key key, Value value) {
+        final int hash = key.hashCode();
+        final int mask = keys.length - 1;
+        for (int slot = slot(hash); ; slot = (slot + 1) & mask) {
+            final Object current = keys[slot];
+            if (current == null) {
+                keys[slot] = key;
+                values[slot] = value;
+                hashes[slot] = hash;
+                if (++size > threshold) {
+                    resize();
+                }
+                return;
+            }
+            if (hashes[slot] == hash && current.equals(key)) {
+                values[slot] = value;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет элемент из хеш-таблицы по указанному ключу.
+     *
+     * @param key Ключ элемента, который требуется удалить.
+     * @return Значение, связанное с удаленным ключом, или null, если ключ не найден.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Value remove(Key key) {
+        final int slot = find(key, key.hashCode());
+        if (slot < 0) {
+            return null;
+        }
+        final Value previous = (Value) values[slot];
+        size--;
+        shiftBack(slot);
+        return previous;
+    }
+
+    /**
+     * Возвращает количество элементов (пар ключ-значение) в хеш-таблице.
+     *
+     * @return Количество элементов в хеш-таблице.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуста ли хеш-таблица.
+     *
+     * @return {@code true}, если хеш-таблица не содержит элементов, иначе {@code false}.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Возвращает итератор по записям в порядке ячеек таблицы.
+     *
+     * @return Итератор записей.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+        return new EntryIterator();
+    }
+
+    /**
+     * Ищет ячейку с указанным ключом.
+     *
+     * @param key  Ключ.
+     * @param hash Хеш-код ключа.
+     * @return Номер ячейки или -1, если ключа нет.
+     */
+    private int find(Key key, int hash) {
+        final int mask = keys.length - 1;
+        for (int slot = slot(hash); ; slot = (slot + 1) & mask) {
+            final Object current = keys[slot];
+            if (current == null) {
+                return -1;
+            }
+            if (hashes[slot] == hash && current.equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Вычисляет начальную ячейку поиска для хеш-кода.
+     *
+     * @param hash Хеш-код ключа.
+     * @return Номер ячейки.
+     */
+    int slot(int hash) {
+        return (hash * GOLDEN_RATIO) >>> shift;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая на ее место следующие записи серии, которые
+     * можно приблизить к их начальной ячейке. Запись из ячейки j с начальной
+     * ячейкой home можно перенести в дыру, если дыра лежит на пути от home к j.
+     *
+     * @param hole Освобождаемая ячейка.
+     */
+    private void shiftBack(int hole) {
+        final int mask = keys.length - 1;
+        for (int slot = (hole + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            final int home = slot(hashes[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hashes[hole] = hashes[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    /**
+     * Удваивает емкость и переносит записи в новые массивы по сохраненным хеш-кодам.
+     *
+     * @throws IllegalStateException Если емкость достигла максимального значения.
+     */
+    private void resize() {
+        if (keys.length >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Хеш-таблица достигла максимальной емкости.");
+        }
+        final Object[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int[] oldHashes = hashes;
+        allocate(oldKeys.length << 1);
+
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldHashes[i]);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity - 1);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Возвращает наименьшую степень двойки, при которой заданное количество
+     * записей не превышает коэффициент загрузки.
+     */
+    private static int capacityFor(int expectedSize) {
+        final long needed = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        if (needed > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(DEFAULT_INITIAL_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * Итератор по занятым ячейкам таблицы.
+     */
+    private class EntryIterator implements Iterator<Entry<Key, Value>> {
+        /**
+         * Номер следующей занятой ячейки или длина массива, если ячеек больше нет.
+         */
+        private int next = advance(0);
+
+        private int advance(int slot) {
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Entry<Key, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final SlotEntry entry = new SlotEntry(next);
+            next = advance(next + 1);
+            return entry;
+        }
+    }
+
+    /**
+     * Запись, ссылающаяся на ячейку таблицы. Действительна, пока таблица
+     * не изменена вставкой или удалением.
+     */
+    private class SlotEntry implements Entry<Key, Value> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Key getKey() {
+            return (Key) keys[slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Value getValue() {
+            return (Value) values[slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Value setValue(Value value) {
+            final Value previous = (Value) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentMyHashMapTest extends MyHashMapTest {
+
+    private static final int THREADS = 8;
+
+    @Override
+    MyMap<String, Integer> newMap() {
+        return new ConcurrentMyHashMap<>();
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentPutsDuringResize() throws Exception {
+        ConcurrentMyHashMap<Integer, Integer> myMap = new ConcurrentMyHashMap<>();
+        int perThread = 50_000;
+
+        // Каждый поток вставляет свой диапазон ключей, таблица много раз расширяется совместно
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = thread * perThread + i;
+                myMap.put(key, key);
+                assertEquals(key, myMap.get(key));
+            }
+        });
+
+        assertEquals(THREADS * perThread, myMap.size());
+        for (int key = 0; key < THREADS * perThread; key++) {
+            assertEquals(key, myMap.get(key));
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (MyMap.Entry<Integer, Integer> entry : myMap) {
+            assertTrue(seen.add(entry.getKey()));
+            assertEquals(entry.getKey(), entry.getValue());
+        }
+        assertEquals(THREADS * perThread, seen.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentPutsAndRemovesOnSharedKeys() throws Exception {
+        ConcurrentMyHashMap<Integer, Integer> myMap = new ConcurrentMyHashMap<>();
+        int keys = 1_000;
+
+        // Потоки вставляют и удаляют одни и те же ключи; значение всегда равно ключу
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 200_000; i++) {
+                int key = random.nextInt(keys);
+                if (random.nextBoolean()) {
+                    myMap.put(key, key);
+                } else {
+                    Integer removed = myMap.remove(key);
+                    assertTrue(removed == null || removed == key);
+                }
+            }
+        });
+
+        int count = 0;
+        for (MyMap.Entry<Integer, Integer> entry : myMap) {
+            assertEquals(entry.getKey(), entry.getValue());
+            assertEquals(entry.getKey(), myMap.get(entry.getKey()));
+            count++;
+        }
+        assertEquals(count, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void readersNeverSeeMissingKeys() throws Exception {
+        ConcurrentMyHashMap<Integer, Integer> myMap = new ConcurrentMyHashMap<>();
+        int stable = 10_000;
+        for (int key = 0; key < stable; key++) {
+            myMap.put(key, key);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // Поток 0 добавляет новые ключи и вызывает рехеширования, остальные
+        // читают ключи, которые все время присутствуют в таблице
+        runConcurrently(thread -> {
+            if (thread == 0) {
+                for (int key = stable; key < stable + 300_000; key++) {
+                    myMap.put(key, key);
+                }
+                writing.set(false);
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (writing.get()) {
+                int key = random.nextInt(stable);
+                assertEquals(key, myMap.get(key));
+            }
+        });
+        assertEquals(stable + 300_000, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentMergeCountsEveryIncrement() throws Exception {
+        ConcurrentMyHashMap<Integer, Integer> myMap = new ConcurrentMyHashMap<>();
+        int keys = 5_000;
+        int perThread = 100_000;
+
+        // Небольшое число ключей: потоки постоянно обновляют одни и те же записи
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                myMap.merge((i * 31 + thread) % keys, 1, Integer::sum);
+            }
+        });
+
+        long total = 0;
+        for (MyMap.Entry<Integer, Integer> entry : myMap) {
+            total += entry.getValue();
+        }
+        assertEquals((long) THREADS * perThread, total);
+        assertEquals(keys, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void computeIfAbsentCallsFunctionOncePerKey() throws Exception {
+        ConcurrentMyHashMap<Integer, Integer> myMap = new ConcurrentMyHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        int keys = 20_000;
+
+        runConcurrently(thread -> {
+            for (int key = 0; key < keys; key++) {
+                int expected = key * 2;
+                assertEquals(expected, myMap.computeIfAbsent(key, k -> {
+                    calls.incrementAndGet();
+                    return k * 2;
+                }));
+            }
+        });
+
+        assertEquals(keys, calls.get());
+        assertEquals(keys, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void nullValuesAreRejected() {
+        ConcurrentMyHashMap<String, Integer> myMap = new ConcurrentMyHashMap<>();
+        assertThrows(NullPointerException.class, () -> myMap.put("key", null));
+        assertThrows(NullPointerException.class, () -> myMap.put(null, 1));
+    }
+
+    @Override
+    @org.junit.jupiter.api.Test
+    void computeOnNullValues() {
+        // Таблица не хранит значения null, поэтому записи с ними создать нельзя
+        assertThrows(NullPointerException.class, () -> newMap().put("present", null));
+    }
+
+    /**
+     * Действие одного из потоков теста.
+     */
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Запускает THREADS потоков одновременно и ждет их завершения,
+     * пробрасывая первое исключение или нарушенную проверку.
+     */
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures[thread] = executor.submit(() -> {
+                    start.await();
+                    body.run(id);
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
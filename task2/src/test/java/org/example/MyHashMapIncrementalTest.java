@@ -0,0 +1,51 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashMap;
+import java.util.Random;
+
+class MyHashMapIncrementalTest extends MyHashMapTest {
+
+    @Override
+    MyMap<String, Integer> newMap() {
+        return new MyHashMap<>(MyHashMap.CapacityPolicy.POWER_OF_TWO, MyHashMap.ResizeMode.INCREMENTAL);
+    }
+
+    @org.junit.jupiter.api.Test
+    void operationsDuringMigration() {
+        MyHashMap<Integer, Integer> myMap =
+                new MyHashMap<>(MyHashMap.CapacityPolicy.PRIME, MyHashMap.ResizeMode.INCREMENTAL);
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(21);
+        boolean sawMigration = false;
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(hashMap.remove(key), myMap.remove(key));
+            } else {
+                myMap.put(key, i);
+                hashMap.put(key, i);
+            }
+            assertEquals(hashMap.get(key), myMap.get(key));
+
+            if (myMap.oldTable != null) {
+                sawMigration = true;
+                // Во время переноса итератор видит элементы обеих таблиц ровно по одному разу
+                if (i % 1_000 == 0) {
+                    int count = 0;
+                    for (MyMap.Entry<Integer, Integer> entry : myMap) {
+                        assertEquals(hashMap.get(entry.getKey()), entry.getValue());
+                        count++;
+                    }
+                    assertEquals(hashMap.size(), count);
+                }
+            }
+        }
+        assertTrue(sawMigration);
+        assertEquals(hashMap.size(), myMap.size());
+        for (Integer key : hashMap.keySet()) {
+            assertEquals(hashMap.get(key), myMap.get(key));
+        }
+    }
+}
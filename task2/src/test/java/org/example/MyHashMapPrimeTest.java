@@ -0,0 +1,9 @@
+package org.example;
+
+class MyHashMapPrimeTest extends MyHashMapTest {
+
+    @Override
+    MyMap<String, Integer> newMap() {
+        return new MyHashMap<>(MyHashMap.CapacityPolicy.PRIME);
+    }
+}
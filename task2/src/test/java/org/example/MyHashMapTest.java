@@ -6,9 +6,17 @@ import java.util.Iterator;
 
 class MyHashMapTest {
 
+    /**
+     * Создает проверяемую хеш-таблицу. Тесты других реализаций {@link MyMap}
+     * наследуют этот класс и переопределяют метод.
+     */
+    MyMap<String, Integer> newMap() {
+        return new MyHashMap<>();
+    }
+
     @org.junit.jupiter.api.Test
     void get() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         myMap.put("key1", 42);
@@ -20,7 +28,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void put() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         myMap.put("key1", 42);
@@ -41,7 +49,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void remove() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         myMap.put("key1", 42);
@@ -56,7 +64,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void size() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         assertEquals(hashMap.size(), myMap.size());
@@ -84,7 +92,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void isEmpty() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         assertEquals(hashMap.isEmpty(), myMap.isEmpty());
@@ -102,7 +110,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void testContainsKey() {
-        MyMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
 
         // Вставляем элемент в хеш-таблицу
         myMap.put("key1", 42);
@@ -122,7 +130,7 @@ class MyHashMapTest {
 
     @org.junit.jupiter.api.Test
     void iterator() {
-        MyHashMap<String, Integer> myMap = new MyHashMap<>();
+        MyMap<String, Integer> myMap = newMap();
         HashMap<String, Integer> hashMap = new HashMap<>();
 
         myMap.put("key1", 42);
@@ -142,4 +150,126 @@ class MyHashMapTest {
             assertEquals(hashMap.get(entry.getKey()), entry.getValue());
         }
     }
-}
\ No newline at end of file
+
+    @org.junit.jupiter.api.Test
+    void collidingKeys() {
+        MyMap<String, Integer> myMap = newMap();
+        HashMap<String, Integer> hashMap = new HashMap<>();
+
+        // "Aa" и "BB" имеют одинаковый хеш-код, поэтому все их сочетания одной длины тоже
+        for (int i = 0; i < 64; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 6; bit++) {
+                key.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            myMap.put(key.toString(), i);
+            hashMap.put(key.toString(), i);
+        }
+        assertEquals(hashMap.size(), myMap.size());
+
+        for (String key : hashMap.keySet().toArray(new String[0])) {
+            if (hashMap.get(key) % 3 == 0) {
+                assertEquals(hashMap.remove(key), myMap.remove(key));
+            }
+            assertEquals(hashMap.containsKey(key), myMap.containsKey(key));
+        }
+        assertEquals(hashMap.size(), myMap.size());
+
+        int count = 0;
+        for (MyMap.Entry<String, Integer> entry : myMap) {
+            assertEquals(hashMap.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(hashMap.size(), count);
+    }
+
+    @org.junit.jupiter.api.Test
+    void putIfAbsentAndGetOrDefault() {
+        MyMap<String, Integer> myMap = newMap();
+
+        assertNull(myMap.putIfAbsent("key1", 42));
+        assertEquals(42, myMap.putIfAbsent("key1", 100));
+        assertEquals(42, myMap.get("key1"));
+
+        assertEquals(42, myMap.getOrDefault("key1", -1));
+        assertEquals(-1, myMap.getOrDefault("key2", -1));
+        assertEquals(1, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void computeMethods() {
+        MyMap<String, Integer> myMap = newMap();
+        int[] calls = new int[1];
+
+        assertEquals(3, myMap.computeIfAbsent("abc", key -> {
+            calls[0]++;
+            return key.length();
+        }));
+        assertEquals(3, myMap.computeIfAbsent("abc", key -> {
+            calls[0]++;
+            return 0;
+        }));
+        assertEquals(1, calls[0]);
+        assertNull(myMap.computeIfAbsent("none", key -> null));
+        assertFalse(myMap.containsKey("none"));
+
+        assertEquals(30, myMap.computeIfPresent("abc", (key, value) -> value * 10));
+        assertNull(myMap.computeIfPresent("missing", (key, value) -> fail("Ключа нет")));
+        assertNull(myMap.computeIfPresent("abc", (key, value) -> null));
+        assertFalse(myMap.containsKey("abc"));
+
+        assertEquals(1, myMap.compute("counter", (key, value) -> value == null ? 1 : value + 1));
+        assertEquals(2, myMap.compute("counter", (key, value) -> value == null ? 1 : value + 1));
+        assertNull(myMap.compute("counter", (key, value) -> null));
+        assertTrue(myMap.isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void computeOnNullValues() {
+        MyMap<String, Integer> myMap = newMap();
+        HashMap<String, Integer> hashMap = new HashMap<>();
+        for (String key : new String[]{"present", "absent", "computed", "removed", "merged"}) {
+            myMap.put(key, null);
+            hashMap.put(key, null);
+        }
+
+        // Запись со значением null не удаляется функцией, вернувшей null,
+        // кроме compute; computeIfPresent не вызывает функцию
+        assertEquals(hashMap.computeIfPresent("present", (key, value) -> fail("Значение равно null")),
+                myMap.computeIfPresent("present", (key, value) -> fail("Значение равно null")));
+        assertEquals(hashMap.computeIfAbsent("absent", key -> null), myMap.computeIfAbsent("absent", key -> null));
+        assertEquals(hashMap.computeIfAbsent("computed", String::length),
+                myMap.computeIfAbsent("computed", String::length));
+        assertEquals(hashMap.compute("removed", (key, value) -> null), myMap.compute("removed", (key, value) -> null));
+        assertEquals(hashMap.merge("merged", 1, Integer::sum), myMap.merge("merged", 1, Integer::sum));
+        assertEquals(hashMap.putIfAbsent("present", 7), myMap.putIfAbsent("present", 7));
+
+        assertEquals(hashMap.size(), myMap.size());
+        for (String key : hashMap.keySet()) {
+            assertEquals(hashMap.get(key), myMap.get(key));
+            assertEquals(hashMap.containsKey(key), myMap.containsKey(key), key);
+        }
+        assertFalse(myMap.containsKey("missing"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void mergeCountsLikeHashMap() {
+        MyMap<String, Integer> myMap = newMap();
+        HashMap<String, Integer> hashMap = new HashMap<>();
+
+        // Частоты слов; слова с четной частотой удаляются функцией, вернувшей null
+        for (int i = 0; i < 1_000; i++) {
+            String word = "word" + (i * 7 % 97);
+            assertEquals(hashMap.merge(word, 1, Integer::sum), myMap.merge(word, 1, Integer::sum));
+            if (i % 5 == 0) {
+                assertEquals(hashMap.merge(word, 1, (a, b) -> a % 2 == 0 ? null : a),
+                        myMap.merge(word, 1, (a, b) -> a % 2 == 0 ? null : a));
+            }
+        }
+
+        assertEquals(hashMap.size(), myMap.size());
+        for (String word : hashMap.keySet()) {
+            assertEquals(hashMap.get(word), myMap.get(word));
+        }
+    }
+}
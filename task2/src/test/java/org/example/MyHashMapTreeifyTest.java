@@ -0,0 +1,145 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+class MyHashMapTreeifyTest {
+
+    /**
+     * Ключ с заданным хеш-кодом, не реализующий {@link Comparable}.
+     */
+    static final class Key {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+    }
+
+    /**
+     * Сравнимый ключ с заданным хеш-кодом.
+     */
+    static final class ComparableKey implements Comparable<ComparableKey> {
+        final int id;
+        final int hash;
+
+        ComparableKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ComparableKey && ((ComparableKey) obj).id == id;
+        }
+
+        @Override
+        public int compareTo(ComparableKey other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void bucketTreeifiesAndUntreeifies() {
+        MyHashMap<ComparableKey, Integer> myMap = new MyHashMap<>();
+        ComparableKey[] keys = new ComparableKey[MyHashMap.TREEIFY_THRESHOLD];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new ComparableKey(i, 7);
+            myMap.put(keys[i], i);
+        }
+        int index = myMap.index(7);
+        assertTrue(myMap.table[index] instanceof MyHashMap.TreeBin);
+
+        for (int i = keys.length - 1; i >= MyHashMap.UNTREEIFY_THRESHOLD; i--) {
+            assertEquals(i, myMap.remove(keys[i]));
+        }
+        assertFalse(myMap.table[index] instanceof MyHashMap.TreeBin);
+        // Цепочка собрана из обычных узлов, без ссылок бывшего дерева
+        for (MyHashMap<ComparableKey, Integer>.Node node = myMap.table[index]; node != null; node = node.next) {
+            assertFalse(node instanceof MyHashMap.TreeNode);
+        }
+        for (int i = 0; i < MyHashMap.UNTREEIFY_THRESHOLD; i++) {
+            assertEquals(i, myMap.get(keys[i]));
+        }
+        assertNull(myMap.get(keys[keys.length - 1]));
+        assertEquals(MyHashMap.UNTREEIFY_THRESHOLD, myMap.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void comparableCollisions() {
+        checkAgainstHashMap(new MyHashMap<>(), id -> new ComparableKey(id, id % 3));
+    }
+
+    @org.junit.jupiter.api.Test
+    void nonComparableCollisions() {
+        checkAgainstHashMap(new MyHashMap<>(), id -> new Key(id, id % 3));
+    }
+
+    @org.junit.jupiter.api.Test
+    void collisionsDuringIncrementalResize() {
+        checkAgainstHashMap(new MyHashMap<>(MyHashMap.CapacityPolicy.PRIME, MyHashMap.ResizeMode.INCREMENTAL),
+                id -> new Key(id, id % 50));
+    }
+
+    /**
+     * Выполняет случайные вставки, удаления и вычисления значений для ключей
+     * с малым числом различных хеш-кодов и сверяет результат с {@link HashMap}.
+     */
+    private static <K> void checkAgainstHashMap(MyHashMap<K, Integer> myMap,
+                                                IntFunction<K> keyFactory) {
+        HashMap<K, Integer> hashMap = new HashMap<>();
+        Random random = new Random(22);
+
+        for (int i = 0; i < 20_000; i++) {
+            K key = keyFactory.apply(random.nextInt(2_000));
+            int value = i;
+            switch (random.nextInt(6)) {
+                case 0:
+                    assertEquals(hashMap.remove(key), myMap.remove(key));
+                    break;
+                case 1:
+                    assertEquals(hashMap.merge(key, value, Integer::sum), myMap.merge(key, value, Integer::sum));
+                    break;
+                case 2:
+                    // Нечетное значение удаляется, четное увеличивается
+                    assertEquals(hashMap.computeIfPresent(key, (k, v) -> v % 2 == 0 ? v + 1 : null),
+                            myMap.computeIfPresent(key, (k, v) -> v % 2 == 0 ? v + 1 : null));
+                    break;
+                case 3:
+                    assertEquals(hashMap.putIfAbsent(key, value), myMap.putIfAbsent(key, value));
+                    break;
+                default:
+                    myMap.put(key, value);
+                    hashMap.put(key, value);
+            }
+            assertEquals(hashMap.get(key), myMap.get(key));
+        }
+
+        assertEquals(hashMap.size(), myMap.size());
+        int count = 0;
+        for (MyMap.Entry<K, Integer> entry : myMap) {
+            assertEquals(hashMap.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(hashMap.size(), count);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashMap;
+import java.util.Random;
+
+class OpenAddressingMapTest extends MyHashMapTest {
+
+    @Override
+    MyMap<String, Integer> newMap() {
+        return new OpenAddressingMap<>();
+    }
+
+    @org.junit.jupiter.api.Test
+    void randomOperationsWithCollisions() {
+        MyMap<Integer, Integer> myMap = new OpenAddressingMap<>();
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(19);
+
+        // Узкий диапазон ключей дает длинные серии и частые сдвиги при удалении
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(hashMap.remove(key), myMap.remove(key));
+            } else {
+                myMap.put(key, i);
+                hashMap.put(key, i);
+            }
+            assertEquals(hashMap.get(key), myMap.get(key));
+        }
+        assertEquals(hashMap.size(), myMap.size());
+
+        int count = 0;
+        for (MyMap.Entry<Integer, Integer> entry : myMap) {
+            assertEquals(hashMap.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(hashMap.size(), count);
+    }
+}
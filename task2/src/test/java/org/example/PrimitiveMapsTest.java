@@ -0,0 +1,116 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Random;
+
+class PrimitiveMapsTest {
+
+    @org.junit.jupiter.api.Test
+    void intIntMapMatchesHashMap() {
+        IntIntMap myMap = new IntIntMap(0, -1);
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(24);
+
+        // Узкий диапазон со знаком: есть и ключ 0, и длинные серии
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(hashMap.getOrDefault(key, -1), myMap.remove(key));
+                hashMap.remove(key);
+            } else {
+                myMap.put(key, i);
+                hashMap.put(key, i);
+            }
+            assertEquals(hashMap.getOrDefault(key, -1), myMap.get(key));
+            assertEquals(hashMap.containsKey(key), myMap.containsKey(key));
+        }
+
+        assertEquals(hashMap.size(), myMap.size());
+        int[] count = new int[1];
+        myMap.forEach((key, value) -> {
+            assertEquals(hashMap.get(key), value);
+            count[0]++;
+        });
+        assertEquals(hashMap.size(), count[0]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void longIntMapMatchesHashMap() {
+        LongIntMap myMap = new LongIntMap();
+        HashMap<Long, Integer> hashMap = new HashMap<>();
+        Random random = new Random(24);
+
+        // Ключи различаются и в старших 32 битах
+        for (int i = 0; i < 100_000; i++) {
+            long key = (random.nextInt(2_000) - 1_000L) << random.nextInt(40);
+            if (random.nextInt(3) == 0) {
+                assertEquals(hashMap.getOrDefault(key, 0), myMap.remove(key));
+                hashMap.remove(key);
+            } else {
+                myMap.put(key, i);
+                hashMap.put(key, i);
+            }
+            assertEquals(hashMap.getOrDefault(key, 0), myMap.get(key));
+            assertEquals(hashMap.containsKey(key), myMap.containsKey(key));
+        }
+
+        assertEquals(hashMap.size(), myMap.size());
+        int[] count = new int[1];
+        myMap.forEach((key, value) -> {
+            assertEquals(hashMap.get(key), value);
+            count[0]++;
+        });
+        assertEquals(hashMap.size(), count[0]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void longObjectMapMatchesHashMap() {
+        LongObjectMap<String> myMap = new LongObjectMap<>();
+        HashMap<Long, String> hashMap = new HashMap<>();
+        Random random = new Random(24);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(hashMap.remove(key), myMap.remove(key));
+            } else {
+                myMap.put(key, "value" + i);
+                hashMap.put(key, "value" + i);
+            }
+            assertEquals(hashMap.get(key), myMap.get(key));
+        }
+
+        assertEquals(hashMap.size(), myMap.size());
+        int[] count = new int[1];
+        myMap.forEach((key, value) -> {
+            assertEquals(hashMap.get(key), value);
+            count[0]++;
+        });
+        assertEquals(hashMap.size(), count[0]);
+        assertEquals("default", myMap.getOrDefault(Long.MIN_VALUE, "default"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void intIntMapDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int operations = 100_000;
+        IntIntMap myMap = new IntIntMap(operations, 0);
+        int sum = 0;
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int key = 1_000; key < 1_000 + operations; key++) {
+            myMap.put(key, key);
+            sum += myMap.get(key);
+            sum += myMap.remove(key);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertNotEquals(0, sum);
+        // С упаковкой только ключи заняли бы 16 байт x 100 000
+        assertTrue(allocated < 64 * 1024, "Выделено байт: " + allocated);
+    }
+}